@@ -17,12 +17,14 @@ package org.openrewrite.gradle;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Task;
 import org.gradle.api.file.FileCollection;
 import org.gradle.api.logging.Logger;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.InputFiles;
 import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.SourceSet;
+import org.gradle.api.tasks.compile.JavaCompile;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.InMemoryExecutionContext;
 import org.openrewrite.Parser;
@@ -36,20 +38,35 @@ import org.openrewrite.config.Environment;
 import org.openrewrite.SourceFile;
 import org.openrewrite.config.YamlResourceLoader;
 import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaParserPool;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
 public abstract class AbstractRewriteTask extends DefaultTask implements RewriteTask {
 
+    /**
+     * The most resource text a worker parses at once, so that parsing large resource directories concurrently does
+     * not require holding all of their contents in memory alongside the trees being produced.
+     */
+    private static final long MAX_RESOURCE_CHUNK_BYTES = 4 * 1024 * 1024;
+
     private String metricsUri;
     private String metricsUsername;
     private String metricsPassword;
@@ -95,6 +112,11 @@ public abstract class AbstractRewriteTask extends DefaultTask implements Rewrite
         return new TreeSet<>(extension.getActiveStyles());
     }
 
+    @Input
+    public List<String> getExclusions() {
+        return extension.getExclusions();
+    }
+
     @InputFiles
     public FileCollection getDependencies() {
         return sourceSet.getCompileClasspath();
@@ -141,7 +163,14 @@ public abstract class AbstractRewriteTask extends DefaultTask implements Rewrite
         return new InMemoryExecutionContext(t -> getLog().warn(t.getMessage(), t));
     }
 
-    protected ResultsContainer listResults() {
+    /**
+     * Parse the source set and run the active recipes against it, handing the results to the consumer as they are
+     * produced. The consumer is called once with the results for the whole source set, unless a
+     * {@link RewriteExtension#getBatchSize() batch size} is configured, in which case it is called once per batch.
+     *
+     * @param resultsConsumer Reports or applies results, given the pool that recipes were run on to do so with.
+     */
+    protected void listResults(BiConsumer<ResultsContainer, ForkJoinPool> resultsConsumer) {
         try (MeterRegistryProvider meterRegistryProvider = new MeterRegistryProvider(getLog(), metricsUri, metricsUsername, metricsPassword)) {
             MeterRegistry meterRegistry = meterRegistryProvider.registry();
 
@@ -150,77 +179,244 @@ public abstract class AbstractRewriteTask extends DefaultTask implements Rewrite
             Environment env = environment();
             Set<String> activeRecipes = getActiveRecipes();
             if (activeRecipes.isEmpty()) {
-                return new ResultsContainer(baseDir, emptyList());
+                return;
             }
             List<NamedStyles> styles = env.activateStyles(getActiveStyles());
             Recipe recipe = env.activateRecipes(activeRecipes);
 
-            List<SourceFile> sourceFiles = new ArrayList<>();
+            boolean visitsAllSourceFiles = recipe.visitsAllSourceFiles();
+            int batchSize = extension.getBatchSize();
+            if (batchSize > 0 && visitsAllSourceFiles) {
+                getLog().info("Active recipes visit the source set as a whole, so the whole source set will be parsed at once");
+                batchSize = 0;
+            }
+
+            SourceDiscovery discovery = new SourceDiscovery(getProject().getProjectDir().toPath(), extension.getExclusions());
             List<Path> sourcePaths = getJavaSources().getFiles().stream()
                     .filter(it -> it.isFile() && it.getName().endsWith(".java"))
                     .map(File::toPath)
+                    .filter(it -> !discovery.isExcluded(it))
                     .map(AbstractRewriteTask::toRealPath)
                     .collect(toList());
             List<Path> dependencyPaths = getDependencies().getFiles().stream()
                     .map(File::toPath)
                     .map(AbstractRewriteTask::toRealPath)
                     .collect(toList());
+            List<List<Path>> resourcePaths = discovery.list(
+                    getResources().getFiles().stream().map(File::toPath).collect(toList()),
+                    Arrays.asList(new YamlParser(), new PropertiesParser(), new XmlParser()),
+                    getProject().getBuildDir().toPath().resolve("rewrite").resolve(sourceSet.getName() + "-sources.properties"));
+            List<Path> yamlPaths = resourcePaths.get(0);
+            List<Path> propertiesPaths = resourcePaths.get(1);
+            List<Path> xmlPaths = resourcePaths.get(2);
+
+            IncrementalResultCache cache = null;
+            List<IncrementalResultCache.CachedResult> cachedChanges = new ArrayList<>();
+            if (extension.isIncremental() && visitsAllSourceFiles) {
+                getLog().info("Active recipes visit the source set as a whole, so every source file will be parsed");
+            } else if (extension.isIncremental()) {
+                cache = IncrementalResultCache.load(incrementalCacheFile(), baseDir,
+                        IncrementalResultCache.fingerprint(activeRecipes, getActiveStyles(), extension.getConfigFile(),
+                                dependencyPaths));
+                sourcePaths = cache.filterOutOfDate(sourcePaths, isReportingOnly(), true, cachedChanges);
+                yamlPaths = cache.filterOutOfDate(yamlPaths, isReportingOnly(), false, cachedChanges);
+                propertiesPaths = cache.filterOutOfDate(propertiesPaths, isReportingOnly(), false, cachedChanges);
+                xmlPaths = cache.filterOutOfDate(xmlPaths, isReportingOnly(), false, cachedChanges);
+            }
+
+            List<Path> classpath = new ArrayList<>(dependencyPaths);
+            if (batchSize > 0 && sourcePaths.size() > batchSize) {
+                // sources in other batches aren't parsed along with a batch, so the compiler reads the types a batch
+                // refers to from the source directories as it needs them, entering only their declarations
+                for (File srcDir : sourceSet.getJava().getSrcDirs()) {
+                    if (srcDir.isDirectory()) {
+                        classpath.add(toRealPath(srcDir.toPath()));
+                    }
+                }
+            }
+
             ExecutionContext ctx = executionContext();
 
-            sourceFiles.addAll(
-                    JavaParser.fromJavaVersion()
+            File configFile = extension.getConfigFile();
+            Charset sourceEncoding = sourceEncoding();
+            String stylesKey = getActiveStyles() + "@" + configFile.getAbsolutePath() + ":" + configFile.lastModified() +
+                    "@" + sourceEncoding;
+            JavaParser javaParser = JavaParserCache.acquire(getProject().getGradle(), classpath, stylesKey,
+                    () -> JavaParser.fromJavaVersion()
                             .styles(styles)
-                            .classpath(dependencyPaths)
+                            .classpath(classpath)
+                            .charset(sourceEncoding)
                             .logCompilationWarningsAndErrors(false)
-                            .build()
-                            .parse(sourcePaths, baseDir, ctx)
-            );
-
-            sourceFiles.addAll(
-                    new YamlParser()
-                            .parse(getResources().getFiles().stream()
-                                            .filter(it -> it.isFile() && it.getName().endsWith(".yml") || it.getName().endsWith(".yaml"))
-                                            .map(File::toPath)
-                                            .collect(toList()),
-                                    baseDir,
-                                    ctx
-                            ));
-
-            sourceFiles.addAll(
-                    new PropertiesParser()
-                            .parse(
-                                    getResources().getFiles().stream()
-                                            .filter(it -> it.isFile() && it.getName().endsWith(".properties"))
-                                            .map(File::toPath)
-                                            .collect(toList()),
-                                    baseDir,
-                                    ctx
-                            ));
-
-            sourceFiles.addAll(
-                    new XmlParser().parse(
-                            getResources().getFiles().stream()
-                                    .filter(it -> it.isFile() && it.getName().endsWith(".xml"))
-                                    .map(File::toPath)
-                                    .collect(toList()),
-                            baseDir,
-                            ctx
-                    ));
-
-            List<Result> results = recipe.run(sourceFiles);
-
-            return new ResultsContainer(baseDir, results);
+                            .build());
+
+            Map<Supplier<Parser<? extends SourceFile>>, List<Path>> pathsByParser = new LinkedHashMap<>();
+            pathsByParser.put(() -> javaParser, sourcePaths);
+            pathsByParser.put(YamlParser::new, yamlPaths);
+            pathsByParser.put(PropertiesParser::new, propertiesPaths);
+            pathsByParser.put(XmlParser::new, xmlPaths);
+
+            List<Map<Supplier<Parser<? extends SourceFile>>, List<Path>>> batches = new ArrayList<>();
+            if (batchSize > 0) {
+                for (Map.Entry<Supplier<Parser<? extends SourceFile>>, List<Path>> parserPaths : pathsByParser.entrySet()) {
+                    List<Path> paths = parserPaths.getValue();
+                    for (int i = 0; i < paths.size(); i += batchSize) {
+                        batches.add(singletonMap(parserPaths.getKey(),
+                                paths.subList(i, Math.min(i + batchSize, paths.size()))));
+                    }
+                }
+            } else {
+                batches.add(pathsByParser);
+            }
+
+            ForkJoinPool pool = RecipeExecutors.acquire(getProject().getGradle(), extension);
+            JavaParserPool.openForContext(ctx);
+            try {
+                for (Map<Supplier<Parser<? extends SourceFile>>, List<Path>> batch : batches) {
+                    List<SourceFile> sourceFiles = parse(batch, baseDir, ctx, pool);
+                    List<Path> parsedPaths = new ArrayList<>();
+                    batch.values().forEach(parsedPaths::addAll);
+
+                    List<Result> results = recipe.run(sourceFiles, ctx, pool, 3);
+
+                    if (cache != null) {
+                        cache.record(parsedPaths, results, isReportingOnly());
+                    }
+
+                    resultsConsumer.accept(new ResultsContainer(baseDir, results), pool);
+                }
+
+                if (cache != null) {
+                    cache.save();
+                }
+
+                if (!cachedChanges.isEmpty()) {
+                    ResultsContainer cachedResults = new ResultsContainer(baseDir, emptyList());
+                    cachedResults.cachedRefactoredInPlace.addAll(cachedChanges);
+                    resultsConsumer.accept(cachedResults, pool);
+                }
+            } finally {
+                RecipeExecutors.release(getProject().getGradle(), pool);
+                JavaParserCache.release(getProject().getGradle(), javaParser);
+                JavaParserPool.close(ctx);
+            }
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
+    /**
+     * Parse the paths of every parser concurrently on the pool. Java sources are parsed together by one parser, since
+     * types are attributed across them. Resources are split into chunks that are each parsed by a parser of their own,
+     * sized so that the resources are spread across the pool's workers while no worker holds more than
+     * {@link #MAX_RESOURCE_CHUNK_BYTES} of resource text in memory at a time, unless a single resource is larger than
+     * that by itself.
+     *
+     * @return The parsed source files, in the order of the parsers and their paths.
+     */
+    private static List<SourceFile> parse(Map<Supplier<Parser<? extends SourceFile>>, List<Path>> pathsByParser,
+                                          Path baseDir,
+                                          ExecutionContext ctx,
+                                          ForkJoinPool pool) {
+        List<ForkJoinTask<List<? extends SourceFile>>> tasks = new ArrayList<>();
+        for (Map.Entry<Supplier<Parser<? extends SourceFile>>, List<Path>> parserPaths : pathsByParser.entrySet()) {
+            if (parserPaths.getValue().isEmpty()) {
+                continue;
+            }
+
+            Parser<? extends SourceFile> parser = parserPaths.getKey().get();
+            List<List<Path>> chunks = parser instanceof JavaParser ?
+                    singletonList(parserPaths.getValue()) :
+                    chunkBySize(parserPaths.getValue(), pool.getParallelism());
+            for (int i = 0; i < chunks.size(); i++) {
+                Parser<? extends SourceFile> chunkParser = i == 0 ? parser : parserPaths.getKey().get();
+                List<Path> chunk = chunks.get(i);
+                ForkJoinTask<List<? extends SourceFile>> task = ForkJoinTask.adapt(() -> {
+                    try {
+                        return chunkParser.parse(chunk, baseDir, ctx);
+                    } finally {
+                        // release any state the parser retains about the sources it has parsed
+                        chunkParser.reset();
+                    }
+                });
+                pool.execute(task);
+                tasks.add(task);
+            }
+        }
+
+        List<SourceFile> sourceFiles = new ArrayList<>();
+        for (ForkJoinTask<List<? extends SourceFile>> task : tasks) {
+            sourceFiles.addAll(task.join());
+        }
+        return sourceFiles;
+    }
+
+    private static List<List<Path>> chunkBySize(List<Path> paths, int parallelism) {
+        long[] sizes = new long[paths.size()];
+        long totalSize = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            try {
+                sizes[i] = Files.size(paths.get(i));
+            } catch (IOException e) {
+                sizes[i] = 0;
+            }
+            totalSize += sizes[i];
+        }
+
+        long chunkBytes = Math.max(1, Math.min(MAX_RESOURCE_CHUNK_BYTES, totalSize / parallelism));
+        List<List<Path>> chunks = new ArrayList<>();
+        int start = 0;
+        long size = 0;
+        for (int i = 0; i < paths.size(); i++) {
+            if (i > start && size + sizes[i] > chunkBytes) {
+                // a file larger than a whole chunk still forms a chunk of its own
+                chunks.add(paths.subList(start, i));
+                start = i;
+                size = 0;
+            }
+            size += sizes[i];
+        }
+        if (start < paths.size()) {
+            chunks.add(paths.subList(start, paths.size()));
+        }
+        return chunks;
+    }
+
+    /**
+     * @return The encoding the source set's Java sources are compiled with, or the platform's default encoding when
+     * the compile task doesn't configure one.
+     */
+    private Charset sourceEncoding() {
+        Task compileJava = getProject().getTasks().findByName(sourceSet.getCompileJavaTaskName());
+        if (compileJava instanceof JavaCompile) {
+            String encoding = ((JavaCompile) compileJava).getOptions().getEncoding();
+            if (encoding != null) {
+                return Charset.forName(encoding);
+            }
+        }
+        return Charset.defaultCharset();
+    }
+
+    /**
+     * @return Whether results are only reported, rather than applied to the source files. When reporting only, results
+     * recorded for unchanged source files by a previous incremental run can be reported again without parsing.
+     */
+    protected boolean isReportingOnly() {
+        return false;
+    }
+
+    private Path incrementalCacheFile() {
+        return getProject().getBuildDir().toPath()
+                .resolve("rewrite")
+                .resolve(sourceSet.getName() + ".properties");
+    }
+
     public static class ResultsContainer {
         final Path projectRoot;
         final List<Result> generated = new ArrayList<>();
         final List<Result> deleted = new ArrayList<>();
         final List<Result> moved = new ArrayList<>();
         final List<Result> refactoredInPlace = new ArrayList<>();
+        final List<IncrementalResultCache.CachedResult> cachedRefactoredInPlace = new ArrayList<>();
 
         public ResultsContainer(Path projectRoot, Collection<Result> results) {
             this.projectRoot = projectRoot;
@@ -246,7 +442,8 @@ public abstract class AbstractRewriteTask extends DefaultTask implements Rewrite
         }
 
         public boolean isNotEmpty() {
-            return !generated.isEmpty() || !deleted.isEmpty() || !moved.isEmpty() || !refactoredInPlace.isEmpty();
+            return !generated.isEmpty() || !deleted.isEmpty() || !moved.isEmpty() || !refactoredInPlace.isEmpty() ||
+                    !cachedRefactoredInPlace.isEmpty();
         }
     }
 
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle;
+
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Remembers the outcome of the last rewrite run against each source file of a source set, so that subsequent runs
+ * only need to parse and visit files whose contents changed.
+ * <p>
+ * Each file is keyed by a hash of its contents. Java sources are only skipped when none of them changed, since a change
+ * to one can affect the type attribution of the others. The whole cache is additionally keyed by a fingerprint of the
+ * active recipes, styles, rewrite configuration and compile classpath, and is discarded when that fingerprint changes.
+ * <p>
+ * Files that produced no changes are recorded as "unchanged". During a dry run, files that would be refactored in
+ * place are recorded along with the recipes that changed them and the resulting diff, so a later dry run can report
+ * them again without parsing, and so the diffs can be inspected in the cache file. Files that would be generated,
+ * deleted or moved are never cached.
+ */
+class IncrementalResultCache {
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String UNCHANGED = "unchanged.";
+    private static final String CHANGED = "changed.";
+    private static final String RECIPES = "recipes.";
+    private static final String DIFF = "diff.";
+
+    private final Path cacheFile;
+    private final Path baseDir;
+    private final Properties previous;
+    private final Properties next = new Properties();
+    private final Map<Path, String> contentHashes = new HashMap<>();
+
+    private IncrementalResultCache(Path cacheFile, Path baseDir, String fingerprint, Properties previous) {
+        this.cacheFile = cacheFile;
+        this.baseDir = baseDir;
+        this.previous = previous;
+        this.next.setProperty(FINGERPRINT_KEY, fingerprint);
+    }
+
+    /**
+     * @param cacheFile   Where the cache is persisted, typically somewhere under the project's build directory.
+     * @param baseDir     The directory that source paths are made relative to.
+     * @param fingerprint A fingerprint of everything other than source file contents which influences results.
+     * @return A cache populated with the results of the previous run, if that run shared the same fingerprint.
+     */
+    static IncrementalResultCache load(Path cacheFile, Path baseDir, String fingerprint) {
+        Properties previous = new Properties();
+        if (Files.exists(cacheFile)) {
+            try (InputStream is = Files.newInputStream(cacheFile)) {
+                previous.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                // a corrupt or unreadable cache is equivalent to an empty one
+                previous.clear();
+            }
+            if (!fingerprint.equals(previous.getProperty(FINGERPRINT_KEY))) {
+                previous.clear();
+            }
+        }
+        return new IncrementalResultCache(cacheFile, baseDir, fingerprint, previous);
+    }
+
+    static String fingerprint(Collection<String> activeRecipes,
+                              Collection<String> activeStyles,
+                              File configFile,
+                              Collection<Path> classpath) {
+        MessageDigest digest = sha256();
+        update(digest, "recipes:" + String.join(",", activeRecipes));
+        update(digest, "styles:" + String.join(",", activeStyles));
+        if (configFile.isFile()) {
+            update(digest, "config:" + hash(configFile.toPath()));
+        }
+        for (Path entry : classpath) {
+            // a content hash per jar would be too expensive on large classpaths, so rely on size and timestamp
+            File file = entry.toFile();
+            update(digest, "classpath:" + file.getAbsolutePath() + ":" + file.length() + ":" + file.lastModified());
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Partition source paths into those that need to be parsed and those whose previous result is still current.
+     * Previous results that are still current are carried over to the next version of the cache.
+     * <p>
+     * Java sources are type attributed against each other, so a change to one of them can change the outcome of
+     * running recipes against any other. When the paths depend on each other like this, they are either all skipped
+     * or, if any of them changed, all parsed.
+     *
+     * @param sourcePaths    The candidate source paths.
+     * @param reuseChanges   Whether files that previously produced an in-place change may be skipped. This is only
+     *                       appropriate when results are reported and not applied.
+     * @param interdependent Whether the outcome for any one of the paths may depend on the contents of the others.
+     * @param cachedChanges  Collects the previously recorded in-place changes of skipped files.
+     * @return The source paths that need to be parsed.
+     */
+    List<Path> filterOutOfDate(List<Path> sourcePaths, boolean reuseChanges, boolean interdependent,
+                               List<CachedResult> cachedChanges) {
+        List<Path> outOfDate = new ArrayList<>(sourcePaths.size());
+        List<Path> current = new ArrayList<>(sourcePaths.size());
+        for (Path sourcePath : sourcePaths) {
+            String key = relativize(sourcePath);
+            String hash = contentHash(sourcePath);
+            if (hash.equals(previous.getProperty(UNCHANGED + key)) ||
+                    (reuseChanges && hash.equals(previous.getProperty(CHANGED + key)))) {
+                current.add(sourcePath);
+            } else {
+                outOfDate.add(sourcePath);
+            }
+        }
+
+        if (interdependent && !outOfDate.isEmpty()) {
+            return sourcePaths;
+        }
+
+        for (Path sourcePath : current) {
+            String key = relativize(sourcePath);
+            String hash = contentHash(sourcePath);
+            if (hash.equals(previous.getProperty(UNCHANGED + key))) {
+                next.setProperty(UNCHANGED + key, hash);
+            } else {
+                String recipes = previous.getProperty(RECIPES + key, "");
+                String diff = previous.getProperty(DIFF + key, "");
+                next.setProperty(CHANGED + key, hash);
+                next.setProperty(RECIPES + key, recipes);
+                next.setProperty(DIFF + key, diff);
+                cachedChanges.add(new CachedResult(baseDir.relativize(sourcePath),
+                        recipes.isEmpty() ? Collections.emptyList() : Arrays.asList(recipes.split(","))));
+            }
+        }
+        return outOfDate;
+    }
+
+    /**
+     * Record the outcome of running recipes against the source paths that were parsed in this run.
+     *
+     * @param parsedPaths The source paths that were parsed.
+     * @param results     The results produced for them.
+     * @param keepChanges Whether in-place changes should be recorded, along with their diffs.
+     */
+    void record(Collection<Path> parsedPaths, Collection<Result> results, boolean keepChanges) {
+        Map<String, Result> resultsBySourcePath = new HashMap<>();
+        for (Result result : results) {
+            if (result.getBefore() != null) {
+                resultsBySourcePath.put(result.getBefore().getSourcePath().toString(), result);
+            }
+            if (result.getAfter() != null) {
+                resultsBySourcePath.put(result.getAfter().getSourcePath().toString(), result);
+            }
+        }
+
+        for (Path parsedPath : parsedPaths) {
+            String key = relativize(parsedPath);
+            Result result = resultsBySourcePath.get(key);
+            if (result == null) {
+                next.setProperty(UNCHANGED + key, contentHash(parsedPath));
+            } else if (keepChanges && result.getBefore() != null && result.getAfter() != null &&
+                    result.getBefore().getSourcePath().equals(result.getAfter().getSourcePath())) {
+                next.setProperty(CHANGED + key, contentHash(parsedPath));
+                next.setProperty(RECIPES + key, result.getRecipesThatMadeChanges().stream()
+                        .map(Recipe::getName)
+                        .sorted()
+                        .collect(joining(",")));
+                next.setProperty(DIFF + key, result.diff());
+            }
+        }
+    }
+
+    void save() {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (OutputStream os = Files.newOutputStream(cacheFile)) {
+                next.store(os, "Results of the last rewrite run, used to skip unchanged source files");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write rewrite result cache " + cacheFile, e);
+        }
+    }
+
+    private String relativize(Path sourcePath) {
+        return baseDir.relativize(sourcePath).toString();
+    }
+
+    private String contentHash(Path sourcePath) {
+        return contentHashes.computeIfAbsent(sourcePath, IncrementalResultCache::hash);
+    }
+
+    private static String hash(Path path) {
+        try {
+            return toHex(sha256().digest(Files.readAllBytes(path)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) '\n');
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required to be supported by every JVM", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * An in-place change recorded by a previous dry run whose source file has not changed since.
+     */
+    static class CachedResult {
+        private final Path sourcePath;
+        private final List<String> recipeNames;
+
+        CachedResult(Path sourcePath, List<String> recipeNames) {
+            this.sourcePath = sourcePath;
+            this.recipeNames = recipeNames;
+        }
+
+        Path getSourcePath() {
+            return sourcePath;
+        }
+
+        List<String> getRecipeNames() {
+            return recipeNames;
+        }
+    }
+}
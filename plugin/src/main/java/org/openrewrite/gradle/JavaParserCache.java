@@ -0,0 +1,198 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle;
+
+import org.gradle.api.invocation.Gradle;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaParserPool;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the Java parsers of a build so that later rewrite tasks can reuse them. A parser retains the symbols it has
+ * read from the jars on its classpath across {@link JavaParser#reset() resets}, so reusing one spares every later
+ * source set and task with the same dependencies from resolving those jars again.
+ * <p>
+ * A parser can serve any classpath that its own classpath starts with, with the same styles. A source set that
+ * compiles against a classpath finds every type it references there, and entries appended after it can't shadow any of
+ * those types, whereas an entry inserted anywhere before the end of it could. A task parses with the compile classpath
+ * of its source set, so a source set can reuse the parser of another whose compile classpath starts with its own.
+ * <p>
+ * A parser is used by one task at a time. At most {@link #MAX_IDLE_PARSERS} idle parsers are kept per build, evicting
+ * the least recently used one, and the cache is discarded when the build finishes, so a daemon does not retain parsers
+ * between builds. The {@link JavaParserPool#getDefault() default template parser pool} is cleared at the same time.
+ * Entries are also discarded if an entry on their classpath changes during the build.
+ */
+class JavaParserCache {
+    static final int MAX_IDLE_PARSERS = 4;
+
+    /**
+     * The entries of each build, ordered from the least to the most recently used.
+     */
+    private static final Map<Gradle, List<Entry>> parsers = new IdentityHashMap<>();
+
+    private JavaParserCache() {
+    }
+
+    /**
+     * @param gradle    The build the task belongs to.
+     * @param classpath The classpath to attribute sources against.
+     * @param styles    Identifies the styles the parser is built with, including where they are defined.
+     * @param build     Builds a new parser when no cached parser fits.
+     * @return A parser, which must be given back to {@link #release(Gradle, JavaParser)}.
+     */
+    static JavaParser acquire(Gradle gradle, List<Path> classpath, String styles, Supplier<JavaParser> build) {
+        Map<Path, String> stamps = stamps(classpath);
+        synchronized (parsers) {
+            List<Entry> entries = parsers.get(gradle);
+            if (entries == null) {
+                entries = new ArrayList<>();
+                parsers.put(gradle, entries);
+                gradle.buildFinished(result -> {
+                    synchronized (parsers) {
+                        parsers.remove(gradle);
+                    }
+                    // templates that weren't given a parser or pool compile with the default pool, which tasks that
+                    // run concurrently share
+                    JavaParserPool.getDefault().clear();
+                });
+            }
+
+            for (Iterator<Entry> iterator = entries.iterator(); iterator.hasNext(); ) {
+                Entry entry = iterator.next();
+                if (entry.inUse || !entry.styles.equals(styles) || !startsWith(entry.classpath, classpath)) {
+                    continue;
+                }
+                if (!isCurrent(entry, stamps)) {
+                    iterator.remove();
+                    continue;
+                }
+                entry.inUse = true;
+                iterator.remove();
+                entries.add(entry);
+                return entry.parser;
+            }
+        }
+
+        // building a parser does not resolve anything yet, so there is no need to hold the lock while doing so
+        JavaParser parser = build.get();
+        synchronized (parsers) {
+            List<Entry> entries = parsers.get(gradle);
+            if (entries != null) {
+                Entry entry = new Entry(parser, classpath, stamps, styles);
+                entry.inUse = true;
+                entries.add(entry);
+            }
+        }
+        return parser;
+    }
+
+    static void release(Gradle gradle, JavaParser parser) {
+        synchronized (parsers) {
+            List<Entry> entries = parsers.get(gradle);
+            if (entries == null) {
+                return;
+            }
+
+            int idle = 0;
+            for (Entry entry : entries) {
+                if (entry.parser == parser) {
+                    entry.inUse = false;
+                }
+                if (!entry.inUse) {
+                    idle++;
+                }
+            }
+
+            for (Iterator<Entry> iterator = entries.iterator(); idle > MAX_IDLE_PARSERS && iterator.hasNext(); ) {
+                if (!iterator.next().inUse) {
+                    iterator.remove();
+                    idle--;
+                }
+            }
+        }
+    }
+
+    private static boolean isCurrent(Entry entry, Map<Path, String> stamps) {
+        for (Map.Entry<Path, String> stamp : stamps.entrySet()) {
+            if (!stamp.getValue().equals(entry.stamps.get(stamp.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(List<Path> classpath, List<Path> prefix) {
+        return classpath.size() >= prefix.size() && classpath.subList(0, prefix.size()).equals(prefix);
+    }
+
+    private static Map<Path, String> stamps(List<Path> classpath) {
+        Map<Path, String> stamps = new HashMap<>();
+        for (Path entry : classpath) {
+            try {
+                stamps.put(entry, Files.isDirectory(entry) ? directoryStamp(entry) :
+                        Files.size(entry) + ":" + Files.getLastModifiedTime(entry).toMillis());
+            } catch (IOException | UncheckedIOException e) {
+                stamps.put(entry, "");
+            }
+        }
+        return stamps;
+    }
+
+    /**
+     * The timestamp of a directory only reflects files added to or removed from it directly, so a directory of classes
+     * is stamped with the path, size and timestamp of every file beneath it instead, which catches recompiled classes.
+     */
+    private static String directoryStamp(Path dir) throws IOException {
+        long count = 0;
+        long hash = 0;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Iterator<Path> iterator = files.iterator(); iterator.hasNext(); ) {
+                Path file = iterator.next();
+                BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    count++;
+                    // summed so that the stamp does not depend on the order the files are walked in
+                    hash += (dir.relativize(file).toString().hashCode() * 31L + attributes.size()) * 31L +
+                            attributes.lastModifiedTime().toMillis();
+                }
+            }
+        }
+        return count + ":" + hash;
+    }
+
+    private static class Entry {
+        private final JavaParser parser;
+        private final List<Path> classpath;
+        private final Map<Path, String> stamps;
+        private final String styles;
+        private boolean inUse;
+
+        private Entry(JavaParser parser, List<Path> classpath, Map<Path, String> stamps, String styles) {
+            this.parser = parser;
+            this.classpath = classpath;
+            this.stamps = stamps;
+            this.styles = styles;
+        }
+    }
+}
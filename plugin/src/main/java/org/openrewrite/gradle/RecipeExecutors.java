@@ -0,0 +1,84 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle;
+
+import org.gradle.api.invocation.Gradle;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Hands out the fork join pools that recipes are run on, according to {@link RewriteExtension#getExecutor()}.
+ * <p>
+ * A shared pool is shared by every rewrite task of one build, so that when Gradle runs the tasks of several projects
+ * at once the total number of threads visiting source files stays bounded. It is shut down as soon as no task is
+ * using it, so it is never retained by a daemon between builds.
+ */
+class RecipeExecutors {
+    private static final Map<Gradle, SharedPool> sharedPools = new IdentityHashMap<>();
+
+    private RecipeExecutors() {
+    }
+
+    /**
+     * @param gradle    The build the task belongs to.
+     * @param extension The configuration of the task.
+     * @return A pool to run recipes on, which must be given back to {@link #release(Gradle, ForkJoinPool)}.
+     */
+    static ForkJoinPool acquire(Gradle gradle, RewriteExtension extension) {
+        switch (extension.getExecutor()) {
+            case COMMON:
+                return ForkJoinPool.commonPool();
+            case SHARED:
+                synchronized (sharedPools) {
+                    SharedPool shared = sharedPools.computeIfAbsent(gradle,
+                            g -> new SharedPool(new ForkJoinPool(extension.getParallelism())));
+                    shared.users++;
+                    return shared.pool;
+                }
+            case DEDICATED:
+            default:
+                return new ForkJoinPool(extension.getParallelism());
+        }
+    }
+
+    static void release(Gradle gradle, ForkJoinPool pool) {
+        if (pool == ForkJoinPool.commonPool()) {
+            return;
+        }
+        synchronized (sharedPools) {
+            SharedPool shared = sharedPools.get(gradle);
+            if (shared != null && shared.pool == pool) {
+                if (--shared.users == 0) {
+                    sharedPools.remove(gradle);
+                    pool.shutdown();
+                }
+                return;
+            }
+        }
+        pool.shutdown();
+    }
+
+    private static class SharedPool {
+        private final ForkJoinPool pool;
+        private int users;
+
+        private SharedPool(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle;
+
+import org.openrewrite.Result;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Writes the results of a recipe run to disk, printing and writing source files concurrently.
+ * <p>
+ * Each file is written to a temporary file alongside it which is then moved into place, so that an interrupted run
+ * never leaves a partially written source file behind. A file that is rewritten keeps the charset, byte order mark
+ * and line endings of the original, and is left untouched if its contents would not change.
+ */
+class ResultWriter {
+    private static final byte[] UTF_8_BOM = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final Path projectRoot;
+    private final ForkJoinPool pool;
+
+    ResultWriter(Path projectRoot, ForkJoinPool pool) {
+        this.projectRoot = projectRoot;
+        this.pool = pool;
+    }
+
+    /**
+     * Write generated, moved and refactored files, and delete deleted and moved files.
+     *
+     * @throws IOException If any file could not be written or deleted, after every other file has been written.
+     */
+    void write(AbstractRewriteTask.ResultsContainer results) throws IOException {
+        List<ForkJoinTask<?>> writes = new ArrayList<>();
+        for (Result result : results.generated) {
+            writes.add(pool.submit(() -> writeFile(result, null)));
+        }
+        List<ForkJoinTask<?>> moves = new ArrayList<>();
+        for (Result result : results.moved) {
+            assert result.getBefore() != null;
+            moves.add(pool.submit(() -> writeFile(result, projectRoot.resolve(result.getBefore().getSourcePath()))));
+        }
+        for (Result result : results.refactoredInPlace) {
+            assert result.getBefore() != null;
+            writes.add(pool.submit(() -> writeFile(result, projectRoot.resolve(result.getBefore().getSourcePath()))));
+        }
+
+        List<IOException> failures = new ArrayList<>();
+        for (ForkJoinTask<?> write : writes) {
+            join(write, failures);
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            // the original location of a moved file is only removed once it has been written to its new location
+            if (join(moves.get(i), failures)) {
+                Result moved = results.moved.get(i);
+                assert moved.getBefore() != null;
+                delete(projectRoot.resolve(moved.getBefore().getSourcePath()), failures);
+            }
+        }
+        for (Result result : results.deleted) {
+            assert result.getBefore() != null;
+            delete(projectRoot.resolve(result.getBefore().getSourcePath()), failures);
+        }
+
+        if (!failures.isEmpty()) {
+            IOException failure = failures.get(0);
+            for (int i = 1; i < failures.size(); i++) {
+                failure.addSuppressed(failures.get(i));
+            }
+            throw failure;
+        }
+    }
+
+    private static boolean join(ForkJoinTask<?> write, List<IOException> failures) {
+        try {
+            write.join();
+            return true;
+        } catch (UncheckedIOException e) {
+            failures.add(e.getCause());
+            return false;
+        }
+    }
+
+    /**
+     * @param original The file the result's source file was parsed from, which determines the encoding and line
+     *                 endings the result is written with, or {@code null} if it was generated.
+     */
+    private void writeFile(Result result, @Nullable Path original) {
+        assert result.getAfter() != null;
+        Path target = projectRoot.resolve(result.getAfter().getSourcePath());
+        try {
+            byte[] originalBytes = original != null && Files.isRegularFile(original) ?
+                    Files.readAllBytes(original) :
+                    null;
+            byte[] bytes = encode(result.getAfter().print(), originalBytes);
+
+            if (Files.isRegularFile(target) &&
+                    Arrays.equals(bytes, target.equals(original) ? originalBytes : Files.readAllBytes(target))) {
+                return;
+            }
+
+            // Ensure directories exist in case something was moved into a hitherto non-existent package
+            Path dir = target.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = createTempFile(dir, "." + target.getFileName());
+            try {
+                Files.write(temp, bytes);
+                if (original != null && Files.exists(original)) {
+                    copyPermissions(original, temp);
+                }
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(new IOException("Unable to write file " + target.toAbsolutePath(), e));
+        }
+    }
+
+    /**
+     * Encode printed source text the way the original file was encoded. Source files that were generated are
+     * written in UTF-8 with the line endings they were printed with.
+     */
+    static byte[] encode(String text, @Nullable byte[] original) {
+        if (original == null) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        boolean bom = startsWith(original, UTF_8_BOM);
+        if (bom && text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+
+        if (usesCrLf(original)) {
+            text = toCrLf(text);
+        }
+
+        byte[] encoded = text.getBytes(charsetOf(original, bom));
+        if (!bom) {
+            return encoded;
+        }
+        byte[] withBom = new byte[UTF_8_BOM.length + encoded.length];
+        System.arraycopy(UTF_8_BOM, 0, withBom, 0, UTF_8_BOM.length);
+        System.arraycopy(encoded, 0, withBom, UTF_8_BOM.length, encoded.length);
+        return withBom;
+    }
+
+    /**
+     * Files that are valid UTF-8 are taken to be UTF-8, and any other file to be in the platform's default charset.
+     */
+    private static Charset charsetOf(byte[] original, boolean bom) {
+        if (bom) {
+            return StandardCharsets.UTF_8;
+        }
+        try {
+            StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(original));
+            return StandardCharsets.UTF_8;
+        } catch (CharacterCodingException e) {
+            return Charset.defaultCharset();
+        }
+    }
+
+    /**
+     * @return Whether every line of the original ends with CRLF. Files with mixed line endings are written as printed.
+     */
+    private static boolean usesCrLf(byte[] original) {
+        boolean crLf = false;
+        for (int i = 0; i < original.length; i++) {
+            if (original[i] == '\n') {
+                if (i == 0 || original[i - 1] != '\r') {
+                    return false;
+                }
+                crLf = true;
+            }
+        }
+        return crLf;
+    }
+
+    private static String toCrLf(String text) {
+        StringBuilder crLf = new StringBuilder(text.length() + text.length() / 32);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\n' && (i == 0 || text.charAt(i - 1) != '\r')) {
+                crLf.append('\r');
+            }
+            crLf.append(c);
+        }
+        return crLf.toString();
+    }
+
+    private static boolean startsWith(byte[] bytes, byte[] prefix) {
+        if (bytes.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (bytes[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@link Files#createTempFile(Path, String, String, java.nio.file.attribute.FileAttribute[])} restricts the file it
+     * creates to its owner on POSIX file systems, which a generated file would keep once moved into place. A file
+     * created with {@link Files#createFile(Path, java.nio.file.attribute.FileAttribute[])} instead gets the same
+     * default permissions as any other new file, as determined by the umask.
+     */
+    private static Path createTempFile(Path dir, String prefix) throws IOException {
+        while (true) {
+            try {
+                return Files.createFile(dir.resolve(prefix + Long.toUnsignedString(RANDOM.nextLong()) + ".tmp"));
+            } catch (FileAlreadyExistsException ignored) {
+                // try another name
+            }
+        }
+    }
+
+    private static void copyPermissions(Path from, Path to) {
+        try {
+            Files.setPosixFilePermissions(to, Files.getPosixFilePermissions(from));
+        } catch (UnsupportedOperationException | IOException ignored) {
+            // file systems without POSIX permissions don't need them preserved
+        }
+    }
+
+    private static void delete(Path path, List<IOException> failures) {
+        if (!path.toFile().delete()) {
+            failures.add(new IOException("Unable to delete file " + path.toAbsolutePath()));
+        }
+    }
+}
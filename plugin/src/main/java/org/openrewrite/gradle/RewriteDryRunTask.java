@@ -22,6 +22,7 @@ import org.gradle.api.tasks.TaskAction;
 import org.openrewrite.Result;
 
 import javax.inject.Inject;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RewriteDryRunTask extends AbstractRewriteTask {
     private static final Logger log = Logging.getLogger(RewriteDryRunTask.class);
@@ -38,41 +39,63 @@ public class RewriteDryRunTask extends AbstractRewriteTask {
         return log;
     }
 
+    @Override
+    protected boolean isReportingOnly() {
+        return true;
+    }
+
     @TaskAction
     public void run() {
-        ResultsContainer results = listResults();
-
-        if (results.isNotEmpty()) {
-            for (Result result : results.generated) {
-                assert result.getAfter() != null;
-                getLog().warn("Applying fixes would generate new file " +
-                        result.getAfter().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.deleted) {
-                assert result.getBefore() != null;
-                getLog().warn("Applying fixes would delete file " +
-                        result.getBefore().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.moved) {
-                assert result.getBefore() != null;
-                assert result.getAfter() != null;
-                getLog().warn("Applying fixes would move file from " +
-                        result.getBefore().getSourcePath() + " to " +
-                        result.getAfter().getSourcePath() + " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.refactoredInPlace) {
-                assert result.getBefore() != null;
-                getLog().warn("Applying fixes would make results to " +
-                        result.getBefore().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
+        AtomicBoolean wouldMakeChanges = new AtomicBoolean();
+        listResults((results, pool) -> {
+            if (results.isNotEmpty()) {
+                wouldMakeChanges.set(true);
+                reportResults(results);
             }
+        });
+
+        if (wouldMakeChanges.get()) {
             getLog().warn("Run 'gradle rewriteRun' to apply the fixes. Afterwards, review and commit the results.");
         }
     }
+
+    private void reportResults(ResultsContainer results) {
+        for (Result result : results.generated) {
+            assert result.getAfter() != null;
+            getLog().warn("Applying fixes would generate new file " +
+                    result.getAfter().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.deleted) {
+            assert result.getBefore() != null;
+            getLog().warn("Applying fixes would delete file " +
+                    result.getBefore().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.moved) {
+            assert result.getBefore() != null;
+            assert result.getAfter() != null;
+            getLog().warn("Applying fixes would move file from " +
+                    result.getBefore().getSourcePath() + " to " +
+                    result.getAfter().getSourcePath() + " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.refactoredInPlace) {
+            assert result.getBefore() != null;
+            getLog().warn("Applying fixes would make results to " +
+                    result.getBefore().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (IncrementalResultCache.CachedResult result : results.cachedRefactoredInPlace) {
+            getLog().warn("Applying fixes would make results to " +
+                    result.getSourcePath() +
+                    " by:");
+            for (String recipeName : result.getRecipeNames()) {
+                getLog().warn("  " + recipeName);
+            }
+        }
+    }
 }
@@ -29,10 +29,15 @@ public class RewriteExtension extends CodeQualityExtension {
 
     private final List<String> activeRecipes = new ArrayList<>();
     private final List<String> activeStyles = new ArrayList<>();
+    private final List<String> exclusions = new ArrayList<>();
     private boolean configFileSetDeliberately = false;
     private final Project project;
     private File configFile;
     private String metricsUri = magicalMetricsLogString;
+    private boolean incremental = false;
+    private int batchSize = 0;
+    private int parallelism = 1;
+    private Executor executor = Executor.DEDICATED;
 
     @SuppressWarnings("unused")
     public RewriteExtension(Project project) {
@@ -80,6 +85,95 @@ public class RewriteExtension extends CodeQualityExtension {
         metricsUri = value;
     }
 
+    /**
+     * When incremental, the outcome of each run is remembered per source file under the build directory, and source
+     * files whose contents have not changed since are neither parsed nor visited again. The remembered outcomes are
+     * discarded whenever the active recipes, active styles, rewrite configuration file or compile classpath change.
+     * <p>
+     * Recipes that override {@link org.openrewrite.Recipe#visit(java.util.List, org.openrewrite.ExecutionContext)}
+     * visit the source set as a whole, so no source files are skipped while any of them are active. Java sources are
+     * type attributed against each other, so they are only skipped while none of them have changed; a change to any
+     * one Java source causes all of them to be parsed and visited again.
+     */
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    /**
+     * When positive, source files are parsed, visited and their results written (or reported, for a dry run) in
+     * batches of this many files, so that only one batch of trees is held in memory at a time. The source directories
+     * are on the classpath that each batch of Java sources is type attributed against, so that the compiler reads the
+     * declarations of the types a batch refers to from the sources of other batches as it needs them.
+     * <p>
+     * Recipes that override {@link org.openrewrite.Recipe#visit(java.util.List, org.openrewrite.ExecutionContext)}
+     * visit the source set as a whole, so when any of them are active the whole source set is parsed regardless of
+     * this setting.
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * The number of threads that source files are parsed and visited on concurrently. Defaults to 1, which visits
+     * source files one at a time as earlier versions of the plugin did. Setting this to the number of available
+     * processors typically shortens runs on large source sets, provided that every active recipe is safe to run
+     * concurrently.
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, but was " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Where recipes are run. See {@link Executor}.
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void setExecutor(String executor) {
+        this.executor = Executor.valueOf(executor.toUpperCase());
+    }
+
+    public enum Executor {
+        /**
+         * Each task runs recipes on a pool of its own with {@link #getParallelism() parallelism} threads, which is
+         * shut down when the task completes.
+         */
+        DEDICATED,
+
+        /**
+         * Every rewrite task in the build runs recipes on one pool, sized by the parallelism of whichever task starts
+         * it. When Gradle runs tasks of several projects at once, as it does with {@code --parallel}, this bounds the
+         * total number of threads visiting source files across all of them.
+         */
+        SHARED,
+
+        /**
+         * Recipes are run on the JVM wide common fork join pool, which is shared with anything else running in the
+         * Gradle daemon. The parallelism setting is ignored.
+         */
+        COMMON
+    }
+
     public void activeRecipe(String... recipes) {
         activeRecipes.addAll(asList(recipes));
     }
@@ -113,4 +207,26 @@ public class RewriteExtension extends CodeQualityExtension {
     public List<String> getActiveRecipes() {
         return activeRecipes;
     }
+
+    /**
+     * Exclude source files and resources from rewriting. Exclusions are globs matched against paths relative to the
+     * project directory, for example {@code "src/main/resources/generated/**"}. A directory that matches is not
+     * searched for resources at all.
+     */
+    public void exclusion(String... globs) {
+        exclusions.addAll(asList(globs));
+    }
+
+    public void clearExclusions() {
+        exclusions.clear();
+    }
+
+    public void setExclusions(List<String> exclusions) {
+        this.exclusions.clear();
+        this.exclusions.addAll(exclusions);
+    }
+
+    public List<String> getExclusions() {
+        return exclusions;
+    }
 }
@@ -22,11 +22,9 @@ import org.gradle.api.tasks.TaskAction;
 import org.openrewrite.Result;
 
 import javax.inject.Inject;
-import java.io.BufferedWriter;
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class RewriteRunTask extends AbstractRewriteTask {
     private static final Logger log = Logging.getLogger(RewriteRunTask.class);
@@ -45,86 +43,54 @@ public class RewriteRunTask extends AbstractRewriteTask {
 
     @TaskAction
     public void run() {
-        ResultsContainer results = listResults();
-
-        if (results.isNotEmpty()) {
-            for (Result result : results.generated) {
-                assert result.getAfter() != null;
-                getLog().warn("Generated new file " +
-                        result.getAfter().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.deleted) {
-                assert result.getBefore() != null;
-                getLog().warn("Deleted file " +
-                        result.getBefore().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.moved) {
-                assert result.getAfter() != null;
-                assert result.getBefore() != null;
-                getLog().warn("File has been moved from " +
-                        result.getBefore().getSourcePath() + " to " +
-                        result.getAfter().getSourcePath() + " by:");
-                logRecipesThatMadeChanges(result);
-            }
-            for (Result result : results.refactoredInPlace) {
-                assert result.getBefore() != null;
-                getLog().warn("Changes have been made to " +
-                        result.getBefore().getSourcePath() +
-                        " by:");
-                logRecipesThatMadeChanges(result);
+        AtomicBoolean madeChanges = new AtomicBoolean();
+        listResults((results, pool) -> {
+            if (results.isNotEmpty()) {
+                madeChanges.set(true);
+                applyResults(results, pool);
             }
+        });
 
+        if (madeChanges.get()) {
             getLog().warn("Please review and commit the results.");
+        }
+    }
 
-            try {
-                for (Result result : results.generated) {
-                    assert result.getAfter() != null;
-                    try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(
-                            results.getProjectRoot().resolve(result.getAfter().getSourcePath()))) {
-                        sourceFileWriter.write(result.getAfter().print());
-                    }
-                }
-                for (Result result : results.deleted) {
-                    assert result.getBefore() != null;
-                    Path originalLocation = results.getProjectRoot().resolve(result.getBefore().getSourcePath());
-                    boolean deleteSucceeded = originalLocation.toFile().delete();
-                    if (!deleteSucceeded) {
-                        throw new IOException("Unable to delete file " + originalLocation.toAbsolutePath());
-                    }
-                }
-                for (Result result : results.moved) {
-                    // Should we try to use git to move the file first, and only if that fails fall back to this?
-                    assert result.getBefore() != null;
-                    Path originalLocation = results.getProjectRoot().resolve(result.getBefore().getSourcePath());
-                    boolean deleteSucceeded = originalLocation.toFile().delete();
-                    if (!deleteSucceeded) {
-                        throw new IOException("Unable to delete file " + originalLocation.toAbsolutePath());
-                    }
-                    assert result.getAfter() != null;
-                    // Ensure directories exist in case something was moved into a hitherto non-existent package
-                    Path afterLocation = results.getProjectRoot().resolve(result.getAfter().getSourcePath());
-                    File parentDir = afterLocation.toFile().getParentFile();
-                    //noinspection ResultOfMethodCallIgnored
-                    parentDir.mkdirs();
-                    try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(afterLocation)) {
-                        sourceFileWriter.write(result.getAfter().print());
-                    }
-                }
-                for (Result result : results.refactoredInPlace) {
-                    assert result.getBefore() != null;
-                    try (BufferedWriter sourceFileWriter = Files.newBufferedWriter(
-                            results.getProjectRoot().resolve(result.getBefore().getSourcePath()))) {
-                        assert result.getAfter() != null;
-                        sourceFileWriter.write(result.getAfter().print());
-                    }
-                }
-            } catch (IOException e) {
-                throw new RuntimeException("Unable to rewrite source files", e);
-            }
+    private void applyResults(ResultsContainer results, ForkJoinPool pool) {
+        for (Result result : results.generated) {
+            assert result.getAfter() != null;
+            getLog().warn("Generated new file " +
+                    result.getAfter().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.deleted) {
+            assert result.getBefore() != null;
+            getLog().warn("Deleted file " +
+                    result.getBefore().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.moved) {
+            assert result.getAfter() != null;
+            assert result.getBefore() != null;
+            getLog().warn("File has been moved from " +
+                    result.getBefore().getSourcePath() + " to " +
+                    result.getAfter().getSourcePath() + " by:");
+            logRecipesThatMadeChanges(result);
+        }
+        for (Result result : results.refactoredInPlace) {
+            assert result.getBefore() != null;
+            getLog().warn("Changes have been made to " +
+                    result.getBefore().getSourcePath() +
+                    " by:");
+            logRecipesThatMadeChanges(result);
+        }
+
+        try {
+            new ResultWriter(results.getProjectRoot(), pool).write(results);
+        } catch (IOException e) {
+            throw new RuntimeException("Unable to rewrite source files", e);
         }
     }
 }
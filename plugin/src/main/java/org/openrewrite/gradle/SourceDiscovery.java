@@ -0,0 +1,259 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle;
+
+import org.openrewrite.Parser;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Finds the source files under a set of source directories and classifies them by the parser that accepts them, in a
+ * single walk of each directory.
+ * <p>
+ * The listing is cached between runs along with the modification time of every directory that was walked. Adding,
+ * removing or renaming a file changes the modification time of the directory containing it, so as long as no
+ * directory's modification time has changed the cached listing is still current and the walk can be skipped. Source
+ * directories that didn't exist when the listing was cached are recorded too, so that the listing is walked again once
+ * they are created.
+ */
+class SourceDiscovery {
+    private static final String FINGERPRINT_KEY = "fingerprint";
+    private static final String DIRECTORY = "dir.";
+    private static final String FILE = "file.";
+    private static final String MISSING = "missing.";
+
+    /**
+     * File systems with a coarse timestamp resolution may not change a directory's modification time when it is
+     * modified again shortly after a listing, so listings of recently modified directories are not cached.
+     */
+    private static final long TIMESTAMP_RESOLUTION_MILLIS = 2000;
+
+    private final Path baseDir;
+    private final List<String> exclusions;
+    private final List<PathMatcher> exclusionMatchers;
+
+    /**
+     * @param baseDir    The directory that exclusion globs are matched relative to.
+     * @param exclusions Globs of the files and directories that are excluded.
+     */
+    SourceDiscovery(Path baseDir, List<String> exclusions) {
+        this.baseDir = baseDir;
+        this.exclusions = exclusions;
+        FileSystem fs = baseDir.getFileSystem();
+        this.exclusionMatchers = exclusions.stream()
+                .map(glob -> fs.getPathMatcher("glob:" + glob))
+                .collect(toList());
+    }
+
+    boolean isExcluded(Path path) {
+        if (exclusionMatchers.isEmpty()) {
+            return false;
+        }
+        Path relativePath = path.startsWith(baseDir) ? baseDir.relativize(path) : path;
+        for (PathMatcher exclusionMatcher : exclusionMatchers) {
+            if (exclusionMatcher.matches(relativePath)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param roots     The source directories to list. Those that don't exist are listed as empty.
+     * @param parsers   The parsers to classify source files by. A source file is assigned to the first parser that
+     *                  accepts it, and source files that no parser accepts are left out.
+     * @param cacheFile Where the listing is cached between runs.
+     * @return The accepted source files of each parser, in the same order as the parsers.
+     */
+    List<List<Path>> list(Collection<Path> roots, List<? extends Parser<?>> parsers, Path cacheFile) {
+        String fingerprint = fingerprint(roots, parsers);
+        Properties cached = load(cacheFile, fingerprint);
+        if (cached != null) {
+            return fromCache(cached, parsers.size());
+        }
+
+        long listedAt = System.currentTimeMillis();
+        Properties listing = new Properties();
+        listing.setProperty(FINGERPRINT_KEY, fingerprint);
+        List<List<Path>> pathsByParser = new ArrayList<>(parsers.size());
+        for (int i = 0; i < parsers.size(); i++) {
+            pathsByParser.add(new ArrayList<>());
+        }
+
+        boolean cacheable = true;
+        for (Path root : roots) {
+            if (!Files.isDirectory(root)) {
+                listing.setProperty(MISSING + root, "");
+                continue;
+            }
+            ListingVisitor visitor = new ListingVisitor(parsers, pathsByParser, listing, listedAt);
+            try {
+                Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, visitor);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to list source directory " + root, e);
+            }
+            cacheable &= visitor.cacheable;
+        }
+
+        for (List<Path> paths : pathsByParser) {
+            Collections.sort(paths);
+        }
+
+        if (cacheable) {
+            save(cacheFile, listing);
+        } else {
+            try {
+                Files.deleteIfExists(cacheFile);
+            } catch (IOException ignored) {
+                // the fingerprint of a stale listing can't match, so it is harmless if it remains
+            }
+        }
+
+        return pathsByParser;
+    }
+
+    private String fingerprint(Collection<Path> roots, List<? extends Parser<?>> parsers) {
+        return "roots:" + roots.stream().map(Path::toString).collect(toList()) +
+                " parsers:" + parsers.stream().map(p -> p.getClass().getName()).collect(toList()) +
+                " exclusions:" + exclusions;
+    }
+
+    private static List<List<Path>> fromCache(Properties cached, int parserCount) {
+        List<List<Path>> pathsByParser = new ArrayList<>(parserCount);
+        for (int i = 0; i < parserCount; i++) {
+            pathsByParser.add(new ArrayList<>());
+        }
+        for (String key : cached.stringPropertyNames()) {
+            if (key.startsWith(FILE)) {
+                pathsByParser.get(Integer.parseInt(cached.getProperty(key))).add(Paths.get(key.substring(FILE.length())));
+            }
+        }
+        for (List<Path> paths : pathsByParser) {
+            Collections.sort(paths);
+        }
+        return pathsByParser;
+    }
+
+    /**
+     * @return The cached listing, if there is one for the same fingerprint whose directories are all unmodified and
+     * whose missing source directories are all still missing.
+     */
+    @Nullable
+    private static Properties load(Path cacheFile, String fingerprint) {
+        if (!Files.exists(cacheFile)) {
+            return null;
+        }
+        Properties cached = new Properties();
+        try (InputStream is = Files.newInputStream(cacheFile)) {
+            cached.load(is);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        if (!fingerprint.equals(cached.getProperty(FINGERPRINT_KEY))) {
+            return null;
+        }
+        for (String key : cached.stringPropertyNames()) {
+            if (key.startsWith(DIRECTORY)) {
+                try {
+                    long lastModified = Files.getLastModifiedTime(Paths.get(key.substring(DIRECTORY.length()))).toMillis();
+                    if (!Long.toString(lastModified).equals(cached.getProperty(key))) {
+                        return null;
+                    }
+                } catch (IOException e) {
+                    // the directory has been removed
+                    return null;
+                }
+            } else if (key.startsWith(MISSING) && Files.isDirectory(Paths.get(key.substring(MISSING.length())))) {
+                // the source directory has been created
+                return null;
+            }
+        }
+        return cached;
+    }
+
+    private static void save(Path cacheFile, Properties listing) {
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            try (OutputStream os = Files.newOutputStream(cacheFile)) {
+                listing.store(os, "Source files found by the last rewrite run, used to skip listing source directories");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write rewrite source listing " + cacheFile, e);
+        }
+    }
+
+    private class ListingVisitor extends SimpleFileVisitor<Path> {
+        private final List<? extends Parser<?>> parsers;
+        private final List<List<Path>> pathsByParser;
+        private final Properties listing;
+        private final long listedAt;
+        private boolean cacheable = true;
+
+        private ListingVisitor(List<? extends Parser<?>> parsers,
+                               List<List<Path>> pathsByParser,
+                               Properties listing,
+                               long listedAt) {
+            this.parsers = parsers;
+            this.pathsByParser = pathsByParser;
+            this.listing = listing;
+            this.listedAt = listedAt;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+            if (isExcluded(dir)) {
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+            long lastModified = attrs.lastModifiedTime().toMillis();
+            if (listedAt - lastModified < TIMESTAMP_RESOLUTION_MILLIS) {
+                cacheable = false;
+            }
+            listing.setProperty(DIRECTORY + dir, Long.toString(lastModified));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+            if (!attrs.isRegularFile() || isExcluded(file)) {
+                return FileVisitResult.CONTINUE;
+            }
+            for (int i = 0; i < parsers.size(); i++) {
+                if (parsers.get(i).accept(file)) {
+                    pathsByParser.get(i).add(file);
+                    listing.setProperty(FILE + file, Integer.toString(i));
+                    break;
+                }
+            }
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+            // unreadable files and symbolic link cycles are not source files
+            cacheable = false;
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
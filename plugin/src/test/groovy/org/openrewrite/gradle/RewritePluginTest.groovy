@@ -16,9 +16,19 @@
 package org.openrewrite.gradle
 
 import org.gradle.testkit.runner.TaskOutcome
+import org.openrewrite.Result
+import org.openrewrite.Tree
+import org.openrewrite.marker.Markers
+import org.openrewrite.text.PlainText
 import spock.lang.Ignore
+import spock.lang.Requires
 import spock.lang.Unroll
 
+import java.nio.file.FileSystems
+import java.nio.file.Files
+import java.nio.file.Path
+import java.util.concurrent.ForkJoinPool
+
 /**
  * Because of how the Gradle Test Kit manages the classpath of the project under test, these may fail when run from an IDE.
  * To run & debug these tests from IntelliJ ensure you're delegating test execution to Gradle:
@@ -227,6 +237,91 @@ class RewritePluginTest extends RewriteTestBase {
         gradleVersion << GRADLE_VERSIONS_UNDER_TEST
     }
 
+    def "incremental rewriteRun revisits unchanged sources that depend on changed ones"() {
+        given:
+        projectDir.newFile("settings.gradle")
+        File rewriteYaml = projectDir.newFile("rewrite-config.yml")
+        rewriteYaml.text = """\
+                ---
+                type: specs.openrewrite.org/v1beta/recipe
+                name: org.openrewrite.gradle.SayHello
+                recipeList:
+                  - org.openrewrite.java.ChangeMethodName:
+                      methodPattern: org.openrewrite.before.Greeter sayGoodbye()
+                      newMethodName: sayHello
+                """.stripIndent()
+        File buildGradleFile = projectDir.newFile("build.gradle")
+        buildGradleFile.text = """\
+                plugins {
+                    id("java")
+                    id("org.openrewrite.rewrite")
+                }
+                
+                rewrite {
+                    configFile = "rewrite-config.yml"
+                    activeRecipe("org.openrewrite.gradle.SayHello")
+                    incremental = true
+                }
+                """.stripIndent()
+        File greeter = writeSource("""\
+                package org.openrewrite.before;
+                
+                public class Greeter {
+                    public static void sayHi() {
+                    }
+                }
+                """.stripIndent())
+        String callerText = """\
+                package org.openrewrite.before;
+                
+                public class Caller {
+                    void call() {
+                        Greeter.sayGoodbye();
+                    }
+                }
+                """.stripIndent()
+        File caller = writeSource(callerText)
+
+        when:
+        def firstResult = gradleRunner(gradleVersion, "rewriteRunMain").build()
+        greeter.text = """\
+                package org.openrewrite.before;
+                
+                public class Greeter {
+                    public static void sayGoodbye() {
+                    }
+                }
+                """.stripIndent()
+        def secondResult = gradleRunner(gradleVersion, "rewriteRunMain").build()
+
+        then:
+        firstResult.task(":rewriteRunMain").outcome == TaskOutcome.SUCCESS
+        secondResult.task(":rewriteRunMain").outcome == TaskOutcome.SUCCESS
+        greeter.text.contains("public static void sayHello()")
+        // the caller is unchanged since the first run, but its call now resolves to the renamed method
+        caller.text == callerText.replace("sayGoodbye", "sayHello")
+
+        where:
+        gradleVersion << GRADLE_VERSIONS_UNDER_TEST
+    }
+
+    @Requires({ FileSystems.getDefault().supportedFileAttributeViews().contains("posix") })
+    def "generated files are written with the same default permissions as any other new file"() {
+        given:
+        Path root = projectDir.root.toPath()
+        PlainText generated = new PlainText(Tree.randomId(), Markers.EMPTY, "generated")
+        Path probe = Files.createFile(root.resolve("probe.txt"))
+
+        when:
+        new ResultWriter(root, ForkJoinPool.commonPool())
+                .write(new AbstractRewriteTask.ResultsContainer(root, [new Result(null, generated, [] as Set)]))
+
+        then:
+        Path written = root.resolve(generated.sourcePath)
+        written.text == "generated"
+        Files.getPosixFilePermissions(written) == Files.getPosixFilePermissions(probe)
+    }
+
     @Ignore("Not yet updated for rewrite 7.0.0")
     def "rewriteRun applies recipes provided from external dependencies on multi-project builds"() {
         given:
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.gradle
+
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import org.openrewrite.properties.PropertiesParser
+import org.openrewrite.yaml.YamlParser
+import spock.lang.Specification
+
+import java.nio.file.Path
+
+class SourceDiscoveryTest extends Specification {
+    static final List PARSERS = [new YamlParser(), new PropertiesParser()]
+
+    @Rule
+    TemporaryFolder projectDir = new TemporaryFolder()
+
+    Path cacheFile
+
+    def setup() {
+        cacheFile = projectDir.root.toPath().resolve("build/rewrite/sources.properties")
+    }
+
+    File writeFile(String path, String contents = "") {
+        def file = new File(projectDir.root, path)
+        file.parentFile.mkdirs()
+        file.text = contents
+        return file
+    }
+
+    Path root(String path) {
+        projectDir.root.toPath().resolve(path)
+    }
+
+    /**
+     * Listings of directories modified within the file system's timestamp resolution aren't cached, so directories
+     * are made to look as if they were last modified a while ago.
+     */
+    void age(File dir) {
+        dir.eachDirRecurse { it.setLastModified(System.currentTimeMillis() - 60_000) }
+        dir.setLastModified(System.currentTimeMillis() - 60_000)
+    }
+
+    List<List<Path>> list(List<String> exclusions = [], List<Path> roots = [root("src/main/resources")]) {
+        new SourceDiscovery(projectDir.root.toPath(), exclusions).list(roots, PARSERS, cacheFile)
+    }
+
+    def "source files are classified by the first parser that accepts them"() {
+        given:
+        def b = writeFile("src/main/resources/b.yml")
+        def a = writeFile("src/main/resources/nested/a.yml")
+        def c = writeFile("src/main/resources/c.properties")
+        writeFile("src/main/resources/d.txt")
+
+        when:
+        def pathsByParser = list()
+
+        then:
+        pathsByParser == [[b.toPath(), a.toPath()].sort(), [c.toPath()]]
+    }
+
+    def "excluded files and directories are left out"() {
+        given:
+        def included = writeFile("src/main/resources/included.yml")
+        writeFile("src/main/resources/excluded.yml")
+        writeFile("src/main/resources/generated/nested/generated.yml")
+
+        when:
+        def pathsByParser = list(["src/main/resources/excluded.yml", "src/main/resources/generated"])
+
+        then:
+        pathsByParser == [[included.toPath()], []]
+    }
+
+    def "the cached listing is used while no directory has been modified"() {
+        given:
+        def resources = new File(projectDir.root, "src/main/resources")
+        def a = writeFile("src/main/resources/a.yml")
+        age(resources)
+        list()
+
+        when: "a file is removed without the directory appearing to be modified"
+        def lastModified = resources.lastModified()
+        a.delete()
+        resources.setLastModified(lastModified)
+
+        then:
+        list() == [[a.toPath()], []]
+
+        when: "the directory is modified"
+        resources.setLastModified(lastModified + 10_000)
+
+        then:
+        list() == [[], []]
+    }
+
+    def "the listing is not cached while directories are being modified"() {
+        given:
+        writeFile("src/main/resources/a.yml")
+
+        when:
+        list()
+
+        then:
+        !cacheFile.toFile().exists()
+    }
+
+    def "source directories that are created after the listing is cached are listed"() {
+        given:
+        def a = writeFile("src/main/resources/a.yml")
+        age(new File(projectDir.root, "src/main/resources"))
+        def roots = [root("src/main/resources"), root("src/test/resources")]
+        list([], roots)
+
+        when:
+        def b = writeFile("src/test/resources/b.yml")
+        age(new File(projectDir.root, "src/test/resources"))
+
+        then:
+        list([], roots) == [[a.toPath(), b.toPath()], []]
+    }
+}
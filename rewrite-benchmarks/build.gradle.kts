@@ -0,0 +1,27 @@
+plugins {
+    id("me.champeau.gradle.jmh") version "0.5.3"
+}
+
+dependencies {
+    jmh("com.google.code.findbugs:jsr305:latest.release")
+    jmh("org.projectlombok:lombok:latest.release")
+
+    jmh(project(":rewrite-core"))
+    jmh(project(":rewrite-java-repairer"))
+    jmh("org.openrewrite:rewrite-java-11:7.2.1") {
+        // benchmark the trees of this build rather than those of the published release
+        exclude(group = "org.openrewrite", module = "rewrite-core")
+        exclude(group = "org.openrewrite", module = "rewrite-java")
+    }
+
+    jmh("org.openjdk.jmh:jmh-core:latest.release")
+    jmh("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+
+    jmhAnnotationProcessor("org.projectlombok:lombok:latest.release")
+    jmhAnnotationProcessor("org.openjdk.jmh:jmh-generator-annprocess:latest.release")
+}
+
+jmh {
+    isZip64 = true
+    duplicateClassesStrategy = DuplicatesStrategy.WARN
+}
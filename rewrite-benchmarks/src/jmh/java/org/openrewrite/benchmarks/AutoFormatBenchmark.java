@@ -0,0 +1,148 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openrewrite.Cursor;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.format.MinimumViableSpacingVisitor;
+import org.openrewrite.java.format.NormalizeFormatVisitor;
+import org.openrewrite.java.format.RemoveTrailingWhitespaceVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Normalizes the whitespace of every method declaration of a corpus of Java sources, as {@code AutoFormatVisitor} does
+ * when templates and {@code maybeAutoFormat} format them, in one traversal or one traversal per rule. That both produce
+ * the same output is tested by {@code AutoFormatFusionTest}.
+ * <p>
+ * The corpus is generated unless the {@code rewrite.benchmarks.corpus} system property names a directory of Java
+ * sources to use instead.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class AutoFormatBenchmark {
+    @Param({"true", "false"})
+    boolean fuse;
+
+    List<J.MethodDeclaration> methods;
+    List<Cursor> parents;
+
+    @Setup
+    public void setup() {
+        List<J.CompilationUnit> cus = JavaParser.fromJavaVersion().build().parse(corpus().toArray(new String[0]));
+
+        methods = new ArrayList<>();
+        parents = new ArrayList<>();
+        for (J.CompilationUnit cu : cus) {
+            new JavaIsoVisitor<Integer>() {
+                @Override
+                public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, Integer p) {
+                    methods.add(method);
+                    parents.add(getCursor().getParentOrThrow());
+                    return super.visitMethodDeclaration(method, p);
+                }
+            }.visit(cu, 0);
+        }
+    }
+
+    @Benchmark
+    public List<J> normalizeFormat() {
+        List<J> formatted = new ArrayList<>(methods.size());
+        for (int i = 0; i < methods.size(); i++) {
+            J method = methods.get(i);
+            Cursor parent = parents.get(i);
+            if (fuse) {
+                formatted.add(TreeVisitor.visitFused(Arrays.<TreeVisitor<J, Integer>>asList(
+                        new NormalizeFormatVisitor<>(),
+                        new MinimumViableSpacingVisitor<>(),
+                        new RemoveTrailingWhitespaceVisitor<>()
+                ), method, 0, parent));
+            } else {
+                J t = new NormalizeFormatVisitor<Integer>().visit(method, 0, parent);
+                t = new MinimumViableSpacingVisitor<Integer>().visit(t, 0, parent);
+                formatted.add(new RemoveTrailingWhitespaceVisitor<Integer>().visit(t, 0, parent));
+            }
+        }
+        return formatted;
+    }
+
+    private static List<String> corpus() {
+        String corpus = System.getProperty("rewrite.benchmarks.corpus");
+        if (corpus != null) {
+            try (Stream<Path> paths = Files.walk(Paths.get(corpus))) {
+                return paths.filter(path -> path.toString().endsWith(".java"))
+                        .map(path -> {
+                            try {
+                                return new String(Files.readAllBytes(path));
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })
+                        .collect(Collectors.toList());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        List<String> sources = new ArrayList<>();
+        for (int c = 0; c < 20; c++) {
+            StringBuilder s = new StringBuilder("package org.openrewrite.benchmarks;\n\nimport java.util.*;\n\n")
+                    .append("public class Corpus").append(c).append(" {\n");
+            for (int i = 0; i < 50; i++) {
+                s.append("    @Deprecated   public static <T>   List<T>method").append(i).append("(int n,T t)   {  \n")
+                        .append("        List<T> l=new ArrayList<>();\n\n\n\n")
+                        .append("        for(int i=0;i<n;i++){l.add(t);}   \n")
+                        .append("        if (n > ").append(i).append(") { return l; } else {\n")
+                        .append("            return Collections.emptyList();\n")
+                        .append("        }\n")
+                        .append("    }\n");
+            }
+            sources.add(s.append("}\n").toString());
+        }
+        return sources;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AutoFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses one large compilation unit. Run with {@code -Drewrite.ids=random} passed to the fork to compare against
+ * fully random tree ids; the GC profiler reports the allocation rate of each.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class JavaParserBenchmark {
+    @Param({"200", "2000"})
+    int methods;
+
+    JavaParser parser;
+    String source;
+
+    @Setup
+    public void setup() {
+        parser = JavaParser.fromJavaVersion().build();
+
+        StringBuilder s = new StringBuilder("package org.openrewrite.benchmarks;\n\nimport java.util.*;\n\npublic class Large {\n");
+        for (int i = 0; i < methods; i++) {
+            s.append("    public List<String> method").append(i).append("(int n, String s) {\n")
+                    .append("        List<String> l = new ArrayList<>();\n")
+                    .append("        for (int i = 0; i < n; i++) {\n")
+                    .append("            l.add(s + i * ").append(i).append(");\n")
+                    .append("        }\n")
+                    .append("        return l;\n")
+                    .append("    }\n");
+        }
+        source = s.append("}\n").toString();
+    }
+
+    @Benchmark
+    public List<J.CompilationUnit> parse() {
+        parser.reset();
+        return parser.parse(source);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(JavaParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+
+        new Runner(new OptionsBuilder()
+                .include(JavaParserBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Drewrite.ids=random")
+                .build()).run();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Compares {@link MethodMatcher#matches(JavaType)} with the regex-only matching it replaced, which is reproduced here
+ * from the matcher's patterns.
+ */
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class MethodMatcherBenchmark {
+    @Param({"java.util.List add(..)", "com.example.Base handle(java.lang.String, int)", "*..* *(..)"})
+    String signature;
+
+    MethodMatcher matcher;
+    List<JavaType.Method> methods;
+
+    @Setup
+    public void setup() {
+        matcher = new MethodMatcher(signature);
+
+        JavaType.Class base = JavaType.Class.build("com.example.Base", 1, JavaType.Class.Kind.Class, emptyList(),
+                emptyList(), emptyList(), null, null, null, false);
+        JavaType.Class middle = JavaType.Class.build("com.example.Middle", 1, JavaType.Class.Kind.Class, emptyList(),
+                emptyList(), emptyList(), null, base, null, false);
+        JavaType.Class leaf = JavaType.Class.build("com.example.Leaf", 1, JavaType.Class.Kind.Class, emptyList(),
+                emptyList(), emptyList(), null, middle, null, false);
+        JavaType.Class string = JavaType.Class.build("java.lang.String");
+        JavaType.Class list = JavaType.Class.build("java.util.List");
+
+        methods = Arrays.asList(
+                method(leaf, "handle", string, JavaType.Primitive.Int),
+                method(leaf, "handle", string),
+                method(middle, "other", JavaType.Primitive.Boolean, string, string),
+                method(list, "add", string),
+                method(list, "size")
+        );
+    }
+
+    private static JavaType.Method method(JavaType.FullyQualified declaringType, String name, JavaType... parameterTypes) {
+        JavaType.Method.Signature signature = new JavaType.Method.Signature(JavaType.Primitive.Void, Arrays.asList(parameterTypes));
+        return JavaType.Method.build(declaringType, name, signature, signature, Collections.nCopies(parameterTypes.length, "p"),
+                Collections.emptySet());
+    }
+
+    @Benchmark
+    public int compiled() {
+        int matches = 0;
+        for (JavaType.Method method : methods) {
+            if (matcher.matches(method)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int regex() {
+        int matches = 0;
+        for (JavaType.Method method : methods) {
+            if (regexMatches(method)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private boolean regexMatches(JavaType.Method method) {
+        return regexMatchesTargetType(method.getDeclaringType()) &&
+                matcher.getMethodNamePattern().matcher(method.getName()).matches() &&
+                matcher.getArgumentPattern().matcher(method.getGenericSignature().getParamTypes().stream()
+                        .map(MethodMatcherBenchmark::typePattern)
+                        .filter(Objects::nonNull)
+                        .collect(joining(","))).matches();
+    }
+
+    private boolean regexMatchesTargetType(@Nullable JavaType.FullyQualified type) {
+        JavaType.Class asClass = TypeUtils.asClass(type);
+        return type != null && (matcher.getTargetTypePattern().matcher(type.getFullyQualifiedName()).matches() ||
+                type != JavaType.Class.OBJECT &&
+                        (asClass == null || regexMatchesTargetType(asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype())));
+    }
+
+    @Nullable
+    private static String typePattern(JavaType type) {
+        if (type instanceof JavaType.Primitive) {
+            return ((JavaType.Primitive) type).getKeyword();
+        } else if (type instanceof JavaType.Class) {
+            return ((JavaType.Class) type).getFullyQualifiedName();
+        } else if (type instanceof JavaType.Array) {
+            JavaType elemType = ((JavaType.Array) type).getElemType();
+            if (elemType != null) {
+                return typePattern(elemType) + "[]";
+            }
+        }
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(MethodMatcherBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * A cheap test of whether a recipe could possibly change a source file, evaluated against the source file's path and
+ * {@link SourceFileIndex index} rather than by visiting it. Each condition is satisfied when any one of its values is
+ * present, and a source file is applicable when every condition is satisfied.
+ * <p>
+ * Applicability must be conservative: a source file which fails the test is not visited at all, so a recipe must only
+ * declare conditions that hold for every source file its visitor could change. Source files that aren't indexed are
+ * assumed to satisfy every condition on their index.
+ */
+@Incubating(since = "7.3.0")
+public class Applicability {
+    private final List<Condition> conditions;
+
+    private Applicability(List<Condition> conditions) {
+        this.conditions = conditions;
+    }
+
+    public static Applicability fileExtensions(String... fileExtensions) {
+        return new Applicability(emptyList()).andFileExtensions(fileExtensions);
+    }
+
+    public static Applicability types(String... fullyQualifiedTypeNames) {
+        return new Applicability(emptyList()).andTypes(fullyQualifiedTypeNames);
+    }
+
+    public static Applicability methodNames(String... methodNames) {
+        return new Applicability(emptyList()).andMethodNames(methodNames);
+    }
+
+    public static Applicability tokens(String... tokens) {
+        return new Applicability(emptyList()).andTokens(tokens);
+    }
+
+    /**
+     * @param fileExtensions File extensions, including the leading ".".
+     * @return An applicability test which additionally requires the source file to have one of the file extensions.
+     */
+    public Applicability andFileExtensions(String... fileExtensions) {
+        return and(new FileExtensionCondition(new HashSet<>(Arrays.asList(fileExtensions))));
+    }
+
+    public Applicability andTypes(String... fullyQualifiedTypeNames) {
+        return and(new IndexCondition(SourceFileIndex::getTypes, fullyQualifiedTypeNames));
+    }
+
+    public Applicability andMethodNames(String... methodNames) {
+        return and(new IndexCondition(SourceFileIndex::getMethodNames, methodNames));
+    }
+
+    public Applicability andTokens(String... tokens) {
+        return and(new IndexCondition(SourceFileIndex::getTokens, tokens));
+    }
+
+    private Applicability and(Condition condition) {
+        List<Condition> and = new ArrayList<>(conditions);
+        and.add(condition);
+        return new Applicability(and);
+    }
+
+    /**
+     * @param sourceFile The source file to test.
+     * @return {@code false} when the source file can be ruled out.
+     */
+    public boolean test(SourceFile sourceFile) {
+        for (Condition condition : conditions) {
+            if (condition instanceof FileExtensionCondition && !((FileExtensionCondition) condition).test(sourceFile)) {
+                return false;
+            }
+        }
+        SourceFileIndex index = sourceFile.getIndex();
+        return index == null || test(index);
+    }
+
+    /**
+     * Test the conditions on an index alone. This can be used to rule out part of a source file, given an index of
+     * just that part. Conditions on the source file's path are not tested.
+     *
+     * @param index The index to test.
+     * @return {@code false} when whatever the index describes can be ruled out.
+     */
+    public boolean test(SourceFileIndex index) {
+        for (Condition condition : conditions) {
+            if (condition instanceof IndexCondition && !((IndexCondition) condition).test(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private interface Condition {
+    }
+
+    private static class FileExtensionCondition implements Condition {
+        private final Set<String> fileExtensions;
+
+        private FileExtensionCondition(Set<String> fileExtensions) {
+            this.fileExtensions = fileExtensions;
+        }
+
+        boolean test(SourceFile sourceFile) {
+            String fileName = String.valueOf(sourceFile.getSourcePath().getFileName());
+            for (String fileExtension : fileExtensions) {
+                if (fileName.endsWith(fileExtension)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class IndexCondition implements Condition {
+        private final Function<SourceFileIndex, Set<String>> facts;
+        private final List<String> anyOf;
+
+        private IndexCondition(Function<SourceFileIndex, Set<String>> facts, String[] anyOf) {
+            this.facts = facts;
+            this.anyOf = Arrays.asList(anyOf);
+        }
+
+        boolean test(SourceFileIndex index) {
+            Set<String> present = facts.apply(index);
+            for (String value : anyOf) {
+                if (present.contains(value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
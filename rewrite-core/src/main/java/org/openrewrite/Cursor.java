@@ -26,15 +26,33 @@ import java.util.stream.Stream;
 
 import static java.util.stream.StreamSupport.stream;
 
-@EqualsAndHashCode(exclude = "messages")
+@EqualsAndHashCode(exclude = {"messages", "messageCount", "enclosing", "fused"})
 public class Cursor {
     @Nullable
     private final Cursor parent;
 
     private final Object value;
 
+    /**
+     * Message keys and values, alternating. Cursors rarely carry more than a couple of messages, so a linear scan of
+     * a small array is cheaper than allocating a hash map on every cursor that has any.
+     */
+    @Nullable
+    private Object[] messages;
+
+    private int messageCount;
+
+    /**
+     * The result of the last {@link #firstEnclosing(Class)} lookup from this cursor. Since a cursor's ancestors never
+     * change, a lookup from a descendant for the same class can stop here.
+     */
     @Nullable
-    private Map<String, Object> messages;
+    private Enclosing enclosing;
+
+    /**
+     * Whether this cursor is part of a traversal that several visitors are fused into, and so is shared between them.
+     */
+    boolean fused;
 
     public Cursor(@Nullable Cursor parent, Object value) {
         this.parent = parent;
@@ -105,15 +123,21 @@ public class Cursor {
 
     @Nullable
     public <T> T firstEnclosing(Class<T> tClass) {
-        CursorIterator iter = new CursorIterator(this);
-        while (iter.hasNext()) {
-            Object value = iter.next();
-            if (tClass.isInstance(value)) {
-                //noinspection unchecked
-                return (T) value;
+        Object found = null;
+        for (Cursor c = this; c != null; c = c.parent) {
+            if (tClass.isInstance(c.value)) {
+                found = c.value;
+                break;
+            }
+            Enclosing e = c.enclosing;
+            if (e != null && e.type == tClass) {
+                found = e.value;
+                break;
             }
         }
-        return null;
+        enclosing = new Enclosing(tClass, found);
+        //noinspection unchecked
+        return (T) found;
     }
 
     public <T> T firstEnclosingOrThrow(Class<T> tClass) {
@@ -191,33 +215,55 @@ public class Cursor {
     }
 
     public boolean isScopeInPath(Tree scope) {
-        return value instanceof Tree && ((Tree) value).getId().equals(scope.getId()) ||
-                getPathAsStream().anyMatch(p -> p instanceof Tree && ((Tree) p).getId().equals(scope.getId()));
+        for (Cursor c = this; c != null; c = c.parent) {
+            if (c.value instanceof Tree && ((Tree) c.value).getId().equals(scope.getId())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Incubating(since = "7.0.0")
     public void putMessageOnFirstEnclosing(Class<?> enclosing, String key, Object value) {
-        if (enclosing.isInstance(this.getValue())) {
-            putMessage(key, value);
-        } else if (parent != null) {
-            parent.putMessageOnFirstEnclosing(enclosing, key, value);
+        for (Cursor c = this; c != null; c = c.parent) {
+            if (enclosing.isInstance(c.value)) {
+                c.putMessage(key, value);
+                return;
+            }
         }
     }
 
     @Incubating(since = "7.0.0")
     public void putMessage(String key, Object value) {
+        if (fused) {
+            throw new IllegalStateException("Visitors that are fused share the cursor of a single traversal, so they " +
+                    "can't put messages on it. See Recipe#isFusible().");
+        }
+        int i = indexOfMessage(key);
+        if (i >= 0) {
+            //noinspection ConstantConditions
+            messages[i + 1] = value;
+            return;
+        }
         if (messages == null) {
-            messages = new HashMap<>();
+            messages = new Object[4];
+        } else if (messageCount * 2 == messages.length) {
+            messages = Arrays.copyOf(messages, messages.length * 2);
         }
-        messages.put(key, value);
+        messages[messageCount * 2] = key;
+        messages[messageCount * 2 + 1] = value;
+        messageCount++;
     }
 
     @Incubating(since = "7.1.0")
     public <T> T computeMessageIfAbsent(String key, Function<String, ? extends T> mappingFunction) {
-        if (messages == null) {
-            messages = new HashMap<>();
+        T t = getMessage(key);
+        if (t == null) {
+            t = mappingFunction.apply(key);
+            if (t != null) {
+                putMessage(key, t);
+            }
         }
-        @SuppressWarnings("unchecked") T t = (T) messages.computeIfAbsent(key, mappingFunction);
         return t;
     }
 
@@ -231,8 +277,13 @@ public class Cursor {
     @Incubating(since = "7.0.0")
     @Nullable
     public <T> T getNearestMessage(String key) {
-        @SuppressWarnings("unchecked") T t = messages == null ? null : (T) messages.get(key);
-        return t == null && parent != null ? parent.getNearestMessage(key) : t;
+        for (Cursor c = this; c != null; c = c.parent) {
+            T t = c.getMessage(key);
+            if (t != null) {
+                return t;
+            }
+        }
+        return null;
     }
 
     /**
@@ -245,8 +296,13 @@ public class Cursor {
     @Incubating(since = "7.0.0")
     @Nullable
     public <T> T pollNearestMessage(String key) {
-        @SuppressWarnings("unchecked") T t = messages == null ? null : (T) messages.remove(key);
-        return t == null && parent != null ? parent.pollNearestMessage(key) : t;
+        for (Cursor c = this; c != null; c = c.parent) {
+            T t = c.pollMessage(key);
+            if (t != null) {
+                return t;
+            }
+        }
+        return null;
     }
 
     /**
@@ -259,8 +315,9 @@ public class Cursor {
     @Incubating(since = "7.0.0")
     @Nullable
     public <T> T getMessage(String key) {
-        //noinspection unchecked
-        return messages == null ? null : (T) messages.get(key);
+        int i = indexOfMessage(key);
+        //noinspection unchecked,ConstantConditions
+        return i < 0 ? null : (T) messages[i + 1];
     }
 
     /**
@@ -273,7 +330,40 @@ public class Cursor {
     @Incubating(since = "7.0.0")
     @Nullable
     public <T> T pollMessage(String key) {
-        //noinspection unchecked
-        return messages == null ? null : (T) messages.remove(key);
+        int i = indexOfMessage(key);
+        if (i < 0) {
+            return null;
+        }
+        //noinspection unchecked,ConstantConditions
+        T t = (T) messages[i + 1];
+        int last = (messageCount - 1) * 2;
+        messages[i] = messages[last];
+        messages[i + 1] = messages[last + 1];
+        messages[last] = null;
+        messages[last + 1] = null;
+        messageCount--;
+        return t;
+    }
+
+    private int indexOfMessage(String key) {
+        for (int i = 0; i < messageCount * 2; i += 2) {
+            //noinspection ConstantConditions
+            if (Objects.equals(key, messages[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static class Enclosing {
+        private final Class<?> type;
+
+        @Nullable
+        private final Object value;
+
+        private Enclosing(Class<?> type, @Nullable Object value) {
+            this.type = type;
+            this.value = value;
+        }
     }
 }
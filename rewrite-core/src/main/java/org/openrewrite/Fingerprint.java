@@ -0,0 +1,108 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+/**
+ * A polynomial hash of a sequence of characters. Fingerprints of adjacent sequences can be combined into the
+ * fingerprint of their concatenation, so the fingerprint of a tree's printed form can be assembled from the
+ * fingerprints of its subtrees regardless of how the text is divided between them.
+ * <p>
+ * Hashing is performed modulo the Mersenne prime 2<sup>61</sup>-1.
+ */
+@Incubating(since = "7.3.0")
+public final class Fingerprint {
+    private static final long MODULUS = (1L << 61) - 1;
+    private static final long BASE = 0x1F3A_9C5D_7E2BL;
+
+    public static final Fingerprint EMPTY = new Fingerprint(0, 1);
+
+    private final long hash;
+
+    /**
+     * BASE raised to the length of the fingerprinted sequence.
+     */
+    private final long power;
+
+    private Fingerprint(long hash, long power) {
+        this.hash = hash;
+        this.power = power;
+    }
+
+    public static Fingerprint of(CharSequence text) {
+        return EMPTY.append(text, 0, text.length());
+    }
+
+    /**
+     * @return The fingerprint of the sequence fingerprinted by this followed by the range of {@code text}.
+     */
+    public Fingerprint append(CharSequence text, int start, int end) {
+        if (start == end) {
+            return this;
+        }
+        long h = hash;
+        long p = power;
+        for (int i = start; i < end; i++) {
+            h = mod(multiply(h, BASE) + text.charAt(i) + 1);
+            p = multiply(p, BASE);
+        }
+        return new Fingerprint(h, p);
+    }
+
+    /**
+     * @return The fingerprint of the sequence fingerprinted by this followed by the sequence fingerprinted by
+     * {@code next}.
+     */
+    public Fingerprint append(Fingerprint next) {
+        if (next.power == 1) {
+            return this;
+        } else if (power == 1) {
+            return next;
+        }
+        return new Fingerprint(mod(multiply(hash, next.power) + next.hash), multiply(power, next.power));
+    }
+
+    private static long multiply(long a, long b) {
+        long aHigh = a >>> 31;
+        long aLow = a & 0x7FFF_FFFFL;
+        long bHigh = b >>> 31;
+        long bLow = b & 0x7FFF_FFFFL;
+        long middle = aLow * bHigh + aHigh * bLow;
+        return mod((aHigh * bHigh << 1) + (middle >>> 30) + ((middle & 0x3FFF_FFFFL) << 31) + aLow * bLow);
+    }
+
+    private static long mod(long x) {
+        long m = (x >>> 61) + (x & MODULUS);
+        return m >= MODULUS ? m - MODULUS : m;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        Fingerprint that = (Fingerprint) o;
+        return hash == that.hash && power == that.power;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        return "Fingerprint{" + Long.toHexString(hash) + "}";
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies several visitors to a tree in a single traversal. A traversal of the visitors' language visits every node,
+ * and once the children of a node have been visited, each of the visitors visits the node itself shallowly, in order,
+ * each given the node as left by the one before.
+ * <p>
+ * This is only equivalent to running the visitors one after the other when each visitor only reads or replaces the
+ * node that it is visiting, and doesn't depend on how the visitors that follow it change that node's children. The
+ * visitors share the cursors of the traversal, so putting a message on one of them fails the visit. Visitors scheduled with {@link TreeVisitor#doAfterVisit(TreeVisitor)} run once the whole tree has been traversed, in
+ * the order of the visitors that scheduled them.
+ */
+class FusedVisitor<T extends Tree, P> {
+    private final TreeVisitor<T, P> traversal;
+    private final List<TreeVisitor<T, P>> visitors;
+    private final boolean[] changed;
+    private final long[] nanos;
+    private int lastDeleted = -1;
+    private int deletedBy = -1;
+    private int active = -1;
+
+    private FusedVisitor(TreeVisitor<T, P> traversal, List<TreeVisitor<T, P>> visitors) {
+        this.traversal = traversal;
+        this.visitors = visitors;
+        this.changed = new boolean[visitors.size()];
+        this.nanos = new long[visitors.size()];
+    }
+
+    /**
+     * @return A fusion of the visitors, or {@code null} if they aren't all of a language that offers a
+     * {@link TreeVisitor#newTraversal() traversal}.
+     */
+    @Nullable
+    static <T extends Tree, P> FusedVisitor<T, P> fuse(List<TreeVisitor<T, P>> visitors) {
+        String language = visitors.get(0).getLanguage();
+        if (language == null) {
+            return null;
+        }
+        for (TreeVisitor<T, P> visitor : visitors) {
+            if (!language.equals(visitor.getLanguage()) || visitor.shallow || visitor.fused != null) {
+                return null;
+            }
+        }
+        TreeVisitor<T, P> traversal = visitors.get(0).newTraversal();
+        return traversal == null ? null : new FusedVisitor<>(traversal, new ArrayList<>(visitors));
+    }
+
+    /**
+     * Visit a subtree of a larger tree.
+     *
+     * @param parent The cursor of the subtree's parent.
+     */
+    @Nullable
+    T visitTree(T tree, P p, Cursor parent) {
+        traversal.setCursor(parent);
+        return visitTree(tree, p);
+    }
+
+    @Nullable
+    T visitTree(T tree, P p) {
+        traversal.fused = this;
+        for (TreeVisitor<T, P> visitor : visitors) {
+            visitor.shallow = true;
+            // so that shallow visits aren't treated as the top level visit of the tree
+            visitor.afterVisit = new ArrayList<>();
+        }
+
+        try {
+            T t = traversal.visit(tree, p);
+            if (t == null) {
+                // the tree itself is the last node to be visited
+                deletedBy = lastDeleted;
+            }
+            for (int i = 0; i < visitors.size() && t != null; i++) {
+                for (TreeVisitor<T, P> afterVisit : visitors.get(i).afterVisit) {
+                    T before = t;
+                    active = i;
+                    long start = System.nanoTime();
+                    t = afterVisit.visit(t, p);
+                    nanos[i] += System.nanoTime() - start;
+                    active = -1;
+                    if (t != before) {
+                        changed[i] = true;
+                    }
+                    if (t == null) {
+                        deletedBy = i;
+                        break;
+                    }
+                }
+            }
+            return t;
+        } finally {
+            traversal.fused = null;
+            for (TreeVisitor<T, P> visitor : visitors) {
+                visitor.shallow = false;
+                visitor.afterVisit = null;
+            }
+        }
+    }
+
+    /**
+     * Visit one node with each of the fused visitors.
+     *
+     * @param parent The cursor of the node's parent.
+     */
+    @Nullable
+    T visit(T node, P p, Cursor parent) {
+        T t = node;
+        for (int i = 0; i < visitors.size(); i++) {
+            T before = t;
+            active = i;
+            long start = System.nanoTime();
+            t = visitors.get(i).visit(t, p, parent);
+            nanos[i] += System.nanoTime() - start;
+            active = -1;
+            if (t != before) {
+                changed[i] = true;
+            }
+            if (t == null) {
+                lastDeleted = i;
+                break;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * @return Whether the visitor at this index changed any node.
+     */
+    boolean madeChanges(int visitor) {
+        return changed[visitor];
+    }
+
+    /**
+     * @return The time the visitor at this index spent visiting nodes and running the visitors it scheduled with
+     * {@link TreeVisitor#doAfterVisit(TreeVisitor)}, excluding the traversal that is shared between the visitors.
+     */
+    long getNanos(int visitor) {
+        return nanos[visitor];
+    }
+
+    /**
+     * @return The index of the visitor that was visiting when a visit failed, or -1 if the failure was not in any
+     * one of the visitors.
+     */
+    int getFailedBy() {
+        return active;
+    }
+
+    /**
+     * @return The index of the visitor that deleted the whole tree, or -1 if it wasn't deleted.
+     */
+    int getDeletedBy() {
+        return deletedBy;
+    }
+}
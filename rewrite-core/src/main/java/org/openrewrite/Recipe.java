@@ -21,28 +21,28 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import io.micrometer.core.instrument.DistributionSummary;
 import io.micrometer.core.instrument.Metrics;
 import io.micrometer.core.instrument.Timer;
-import lombok.EqualsAndHashCode;
 import org.openrewrite.config.RecipeDescriptor;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.internal.MetricsHelper;
 import org.openrewrite.internal.RecipeIntrospectionUtils;
+import org.openrewrite.internal.WeakIdentityCache;
 import org.openrewrite.internal.lang.NullUtils;
 import org.openrewrite.internal.lang.Nullable;
-import org.openrewrite.marker.Marker;
-import org.openrewrite.marker.Markers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.lang.reflect.Field;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singleton;
 import static java.util.stream.Collectors.*;
-import static org.openrewrite.Tree.randomId;
 
 /**
  * Provides a formalized link list data structure of {@link Recipe recipes} and a {@link Recipe#run(List)} method which will
@@ -61,34 +61,18 @@ public abstract class Recipe {
 
     private static final Logger logger = LoggerFactory.getLogger(Recipe.class);
 
+    /**
+     * Runs that aren't given a pool of their own visit source files one at a time on the calling thread, since
+     * {@link ListUtils} maps lists sequentially on a pool with a parallelism of one.
+     */
+    private static final ForkJoinPool SEQUENTIAL = new ForkJoinPool(1);
+
     @SuppressWarnings("unused")
     @JsonProperty("@c")
     public String getJacksonPolymorphicTypeTag() {
         return getClass().getName();
     }
 
-    /**
-     * This tree printer is used when comparing before/after source files and reifies any markers as a list of
-     * hash codes.
-     */
-    private static final TreePrinter<ExecutionContext> MARKER_ID_PRINTER = new TreePrinter<ExecutionContext>() {
-        @Override
-        public void doBefore(@Nullable Tree tree, StringBuilder printerAcc, ExecutionContext executionContext) {
-            if (tree instanceof Markers) {
-                String markerIds = ((Markers)tree).entries().stream()
-                        .filter(marker -> !(marker instanceof RecipeThatMadeChanges))
-                        .map(marker -> String.valueOf(marker.hashCode()))
-                        .collect(joining(","));
-                if (!markerIds.isEmpty()) {
-                    printerAcc
-                            .append("markers[")
-                            .append(markerIds)
-                            .append("]->");
-                }
-            }
-        }
-    };
-
     public static final TreeVisitor<?, ExecutionContext> NOOP = new TreeVisitor<Tree, ExecutionContext>() {
         @Override
         public Tree visit(@Nullable Tree tree, ExecutionContext ctx) {
@@ -190,20 +174,39 @@ public abstract class Recipe {
         return null;
     }
 
+    /**
+     * A recipe can optionally declare facts that a source file must contain for the recipe's visitor to be able to
+     * change it. Unlike {@link #getApplicableTest()}, this is tested against each source file individually, and
+     * source files that fail the test are skipped by the visitor without being visited.
+     *
+     * @return A test of whether this recipe's visitor could change a source file.
+     */
+    @Incubating(since = "7.3.0")
+    @Nullable
+    protected Applicability getApplicability() {
+        return null;
+    }
+
+    /**
+     * @param before     The source files to visit.
+     * @param notVisited Source files that are not visited in this cycle, but which still count towards whether this
+     *                   recipe is applicable.
+     * @param ctx        The current execution context.
+     * @param run        The state of the run that this visit is a part of.
+     * @return The visited source files.
+     */
     @SuppressWarnings("SuspiciousMethodCalls")
     private <S extends SourceFile> List<SourceFile> visitInternal(List<S> before,
+                                                                  List<? extends SourceFile> notVisited,
                                                                   ExecutionContext ctx,
-                                                                  ForkJoinPool forkJoinPool,
-                                                                  Map<UUID, Recipe> recipeThatDeletedSourceFile) {
+                                                                  RecipeRun run) {
         if(getApplicableTest() != null) {
-            boolean applicable = false;
-            for (S s : before) {
-                if (getApplicableTest().visit(s, ctx) != s) {
-                    applicable = true;
-                    break;
-                }
+            boolean applicable = isApplicable(before, ctx, run) || isApplicable(notVisited, ctx, run);
+            Boolean wasApplicable = run.applicable.put(this, applicable);
+            if (applicable && Boolean.FALSE.equals(wasApplicable) && !notVisited.isEmpty()) {
+                // the source files that aren't visited in this cycle were skipped by this recipe in an earlier one
+                run.becameApplicable = true;
             }
-
             if (!applicable) {
                 //noinspection unchecked
                 return (List<SourceFile>) before;
@@ -213,32 +216,7 @@ public abstract class Recipe {
         List<S> after = before;
         // if this recipe isn't valid we just skip it and proceed to next
         if (validate(ctx).isValid()) {
-            after = ListUtils.map(after, forkJoinPool, s -> {
-                Timer.Builder timer = Timer.builder("rewrite.recipe.visit").tag("recipe", getDisplayName());
-                Timer.Sample sample = Timer.start();
-                try {
-                    @SuppressWarnings("unchecked") S afterFile = (S) getVisitor().visit(s, ctx);
-                    if (afterFile != null && afterFile != s) {
-                        afterFile = afterFile.withMarkers(afterFile.getMarkers().compute(
-                                new RecipeThatMadeChanges(this),
-                                (r1, r2) -> {
-                                    r1.recipes.addAll(r2.recipes);
-                                    return r1;
-                                }));
-                        sample.stop(MetricsHelper.successTags(timer, s, "changed").register(Metrics.globalRegistry));
-                    } else if (afterFile == null) {
-                        recipeThatDeletedSourceFile.put(s.getId(), this);
-                        sample.stop(MetricsHelper.successTags(timer, s, "deleted").register(Metrics.globalRegistry));
-                    } else {
-                        sample.stop(MetricsHelper.successTags(timer, s, "unchanged").register(Metrics.globalRegistry));
-                    }
-                    return afterFile;
-                } catch (Throwable t) {
-                    sample.stop(MetricsHelper.errorTags(timer, s, t).register(Metrics.globalRegistry));
-                    ctx.getOnError().accept(t);
-                    return s;
-                }
-            });
+            after = ListUtils.map(after, run.forkJoinPool, s -> visitSourceFile(s, ctx, run));
         }
 
         // The type of the list is widened at this point, since a source file type may be generated that isn't
@@ -251,24 +229,188 @@ public abstract class Recipe {
         for (SourceFile maybeGenerated : afterWidened) {
             if (!after.contains(maybeGenerated)) {
                 // a new source file generated
-                recipeThatDeletedSourceFile.put(maybeGenerated.getId(), this);
+                run.recipeThatDeletedSourceFile.put(maybeGenerated.getId(), this);
             }
         }
 
         for (SourceFile maybeDeleted : after) {
             if (!afterWidened.contains(maybeDeleted)) {
                 // a source file deleted
-                recipeThatDeletedSourceFile.put(maybeDeleted.getId(), this);
+                run.recipeThatDeletedSourceFile.put(maybeDeleted.getId(), this);
             }
         }
 
-        for (Recipe recipe : recipeList) {
-            afterWidened = recipe.visitInternal(afterWidened, ctx, forkJoinPool, recipeThatDeletedSourceFile);
+        for (int i = 0; i < recipeList.size(); ) {
+            int fusible = i;
+            while (fusible < recipeList.size() && recipeList.get(fusible).canBeFused(ctx)) {
+                fusible++;
+            }
+            if (fusible - i > 1) {
+                afterWidened = visitFused(recipeList.subList(i, fusible), afterWidened, ctx, run);
+                i = fusible;
+            } else {
+                afterWidened = recipeList.get(i).visitInternal(afterWidened, notVisited, ctx, run);
+                i++;
+            }
         }
 
         return afterWidened;
     }
 
+    @Nullable
+    private <S extends SourceFile> S visitSourceFile(S s, ExecutionContext ctx, RecipeRun run) {
+        Applicability applicability = getApplicability();
+        if (applicability != null && !applicability.test(s)) {
+            return s;
+        }
+        Timer.Builder timer = visitTimer();
+        Timer.Sample sample = Timer.start();
+        try {
+            @SuppressWarnings("unchecked") S afterFile = (S) getVisitor().visit(s, ctx);
+            if (afterFile != null && afterFile != s) {
+                run.recipesThatMadeChanges.computeIfAbsent(s.getId(), id -> ConcurrentHashMap.newKeySet()).add(this);
+                sample.stop(MetricsHelper.successTags(timer, s, "changed").register(Metrics.globalRegistry));
+            } else if (afterFile == null) {
+                run.recipeThatDeletedSourceFile.put(s.getId(), this);
+                sample.stop(MetricsHelper.successTags(timer, s, "deleted").register(Metrics.globalRegistry));
+            } else {
+                sample.stop(MetricsHelper.successTags(timer, s, "unchanged").register(Metrics.globalRegistry));
+            }
+            return afterFile;
+        } catch (Throwable t) {
+            sample.stop(MetricsHelper.errorTags(timer, s, t).register(Metrics.globalRegistry));
+            ctx.getOnError().accept(t);
+            return s;
+        }
+    }
+
+    private Timer.Builder visitTimer() {
+        return Timer.builder("rewrite.recipe.visit").tag("recipe", getDisplayName());
+    }
+
+    /**
+     * A recipe whose visitor only reads or replaces the node it is visiting, and doesn't depend on how recipes that
+     * follow it change that node's children, can have its visitor fused with those of neighbouring fusible recipes in
+     * a composite recipe's pipeline. Fused visitors visit each source file in a single traversal, in which each node is
+     * dispatched to every one of them in turn, instead of each visitor traversing every source file separately.
+     * <p>
+     * Each fused visitor visits a node shallowly, after every one of them has visited the node's children, so that the
+     * visitor of a fusible recipe:
+     * <ul>
+     *     <li>sees the children of a node as already changed by the visitors of the recipes that follow it;</li>
+     *     <li>has already visited the children of a node by the time it visits the node, so any changes or state it
+     *     sets up on its way down to the children, in {@link TreeVisitor#preVisit(Tree, Object)} or otherwise, are
+     *     not seen when visiting them;</li>
+     *     <li>finds the ancestors on its cursor as they were before any of the fused visitors changed them;</li>
+     *     <li>shares its cursor with the visitors it is fused with, and so must not put messages on it. Doing so fails
+     *     the visit with an {@link IllegalStateException}.</li>
+     * </ul>
+     * Only recipes without an {@link #getApplicableTest() applicable test}, without a pipeline of their own and that
+     * don't override {@link #visit(List, ExecutionContext)} are fused. If a fused visitor fails on a source file, the
+     * changes of every visitor it is fused with are discarded for that source file.
+     *
+     * @return Whether this recipe's visitor can be fused with others.
+     */
+    @Incubating(since = "7.3.0")
+    protected boolean isFusible() {
+        return false;
+    }
+
+    private boolean canBeFused(ExecutionContext ctx) {
+        return isFusible() &&
+                recipeList.isEmpty() &&
+                getApplicableTest() == null &&
+                !visitsAllSourceFiles() &&
+                validate(ctx).isValid();
+    }
+
+    private static List<SourceFile> visitFused(List<Recipe> recipes,
+                                               List<SourceFile> before,
+                                               ExecutionContext ctx,
+                                               RecipeRun run) {
+        return ListUtils.map(before, run.forkJoinPool, s -> {
+            List<Recipe> applicable = new ArrayList<>(recipes.size());
+            List<TreeVisitor<Tree, ExecutionContext>> visitors = new ArrayList<>(recipes.size());
+            for (Recipe recipe : recipes) {
+                Applicability applicability = recipe.getApplicability();
+                if (applicability == null || applicability.test(s)) {
+                    applicable.add(recipe);
+                    //noinspection unchecked
+                    visitors.add((TreeVisitor<Tree, ExecutionContext>) recipe.getVisitor());
+                }
+            }
+
+            FusedVisitor<Tree, ExecutionContext> fused = visitors.size() > 1 ? FusedVisitor.fuse(visitors) : null;
+            if (fused == null) {
+                SourceFile after = s;
+                for (Recipe recipe : applicable) {
+                    after = recipe.visitSourceFile(after, ctx, run);
+                    if (after == null) {
+                        break;
+                    }
+                }
+                return after;
+            }
+
+            try {
+                SourceFile after = (SourceFile) fused.visitTree(s, ctx);
+                for (int i = 0; i < applicable.size(); i++) {
+                    Recipe recipe = applicable.get(i);
+                    String outcome = "unchanged";
+                    if (after == null && i == fused.getDeletedBy()) {
+                        run.recipeThatDeletedSourceFile.put(s.getId(), recipe);
+                        outcome = "deleted";
+                    } else if (after != null && fused.madeChanges(i)) {
+                        run.recipesThatMadeChanges.computeIfAbsent(s.getId(), id -> ConcurrentHashMap.newKeySet())
+                                .add(recipe);
+                        outcome = "changed";
+                    }
+                    MetricsHelper.successTags(recipe.visitTimer(), s, outcome)
+                            .register(Metrics.globalRegistry)
+                            .record(fused.getNanos(i), TimeUnit.NANOSECONDS);
+                }
+                return after;
+            } catch (Throwable t) {
+                if (fused.getFailedBy() >= 0) {
+                    MetricsHelper.errorTags(applicable.get(fused.getFailedBy()).visitTimer(), s, t)
+                            .register(Metrics.globalRegistry)
+                            .record(fused.getNanos(fused.getFailedBy()), TimeUnit.NANOSECONDS);
+                }
+                ctx.getOnError().accept(t);
+                return s;
+            }
+        });
+    }
+
+    /**
+     * Tests source files, stopping as soon as any source file is found to be applicable. Source files are tested on
+     * the run's pool unless its parallelism is one, in which case they are tested on the calling thread. The result
+     * for each source file that is tested is remembered for the rest of the run, so a source file that doesn't change
+     * is only tested once no matter how many cycles it is part of.
+     */
+    private boolean isApplicable(List<? extends SourceFile> sourceFiles, ExecutionContext ctx, RecipeRun run) {
+        if (sourceFiles.isEmpty()) {
+            return false;
+        }
+        WeakIdentityCache<SourceFile, Boolean> applicableTestResults = run.applicableTestResults
+                .computeIfAbsent(this, recipe -> new WeakIdentityCache<>());
+        Predicate<SourceFile> isApplicable = s -> {
+            Boolean applicable = applicableTestResults.get(s);
+            if (applicable == null) {
+                // visitors aren't thread-safe, so each source file is tested with its own instance
+                TreeVisitor<?, ExecutionContext> applicableTest = getApplicableTest();
+                assert applicableTest != null;
+                applicable = applicableTest.visit(s, ctx) != s;
+                applicableTestResults.put(s, applicable);
+            }
+            return applicable;
+        };
+        if (run.forkJoinPool.getParallelism() == 1) {
+            return sourceFiles.stream().anyMatch(isApplicable);
+        }
+        return run.forkJoinPool.submit(() -> sourceFiles.parallelStream().anyMatch(isApplicable)).join();
+    }
+
     /**
      * Override this to generate new source files or delete source files.
      *
@@ -281,6 +423,31 @@ public abstract class Recipe {
         return before;
     }
 
+    /**
+     * Recipes that only operate through their {@link #getVisitor() visitor} see one source file at a time, and so can
+     * be run against any subset of a set of source files, one subset after another.
+     *
+     * @return Whether this recipe or any recipe in its pipeline overrides {@link #visit(List, ExecutionContext)}, and
+     * so must be run against all the source files at once.
+     */
+    @Incubating(since = "7.3.0")
+    public boolean visitsAllSourceFiles() {
+        for (Class<?> c = getClass(); c != Recipe.class; c = c.getSuperclass()) {
+            try {
+                c.getDeclaredMethod("visit", List.class, ExecutionContext.class);
+                return true;
+            } catch (NoSuchMethodException ignored) {
+                // keep looking up the class hierarchy
+            }
+        }
+        for (Recipe recipe : recipeList) {
+            if (recipe.visitsAllSourceFiles()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public final List<Result> run(List<? extends SourceFile> before) {
         return run(before, new InMemoryExecutionContext());
     }
@@ -290,9 +457,18 @@ public abstract class Recipe {
     }
 
     public final List<Result> run(List<? extends SourceFile> before, ExecutionContext ctx, int maxCycles) {
-        return run(before, ctx, ForkJoinPool.commonPool(), maxCycles);
+        return run(before, ctx, SEQUENTIAL, maxCycles);
     }
 
+    /**
+     * @param before       The source files to run this recipe against.
+     * @param ctx          The execution context of the run.
+     * @param forkJoinPool Source files are visited concurrently on this pool unless its parallelism is one, so the
+     *                     recipe's visitors must be safe to run concurrently when it is larger.
+     * @param maxCycles    The most times the recipe is run against source files that changed in the previous cycle,
+     *                     or against every source file when a recipe with an applicable test became applicable.
+     * @return The results of the run, one for each source file that was generated, deleted or changed.
+     */
     public final List<Result> run(List<? extends SourceFile> before,
                                   ExecutionContext ctx,
                                   ForkJoinPool forkJoinPool,
@@ -304,18 +480,31 @@ public abstract class Recipe {
                 .register(Metrics.globalRegistry)
                 .record(before.size());
 
-        Map<UUID, Recipe> recipeThatDeletedSourceFile = new HashMap<>();
+        RecipeRun run = new RecipeRun(forkJoinPool);
         List<? extends SourceFile> acc = before;
         List<? extends SourceFile> after = acc;
 
+        // After the first cycle, only the source files that changed in the previous cycle are visited again, unless a
+        // new message was put in the execution context, which could influence how any source file is visited, or a
+        // recipe that was skipped because of its applicable test became applicable when those source files changed.
+        // Recipes which operate on the whole list of source files see every source file in every cycle.
+        boolean visitsAllSourceFiles = visitsAllSourceFiles();
+        List<? extends SourceFile> changedInLastCycle = before;
         WatchForNewMessageExecutionContext ctxWithWatch = new WatchForNewMessageExecutionContext(ctx);
         for (int i = 0; i < maxCycles; i++) {
-            after = visitInternal(acc, ctxWithWatch, forkJoinPool, recipeThatDeletedSourceFile);
-            if (after == acc && !ctxWithWatch.needAnotherCycle) {
+            boolean visitAll = i == 0 || visitsAllSourceFiles || ctxWithWatch.needAnotherCycle || run.becameApplicable;
+            ctxWithWatch.needAnotherCycle = false;
+            run.becameApplicable = false;
+            if (visitAll) {
+                after = visitInternal(acc, emptyList(), ctxWithWatch, run);
+            } else {
+                after = revisit(acc, changedInLastCycle, ctxWithWatch, run);
+            }
+            if (after == acc && !ctxWithWatch.needAnotherCycle && !run.becameApplicable) {
                 break;
             }
+            changedInLastCycle = changed(acc, after);
             acc = after;
-            ctxWithWatch.needAnotherCycle = false;
         }
 
         if (after == before) {
@@ -332,15 +521,16 @@ public abstract class Recipe {
             SourceFile original = sourceFileIdentities.get(s.getId());
             if (original != s) {
                 if (original == null) {
-                    results.add(new Result(null, s, singleton(recipeThatDeletedSourceFile.get(s.getId()))));
+                    results.add(new Result(null, s, singleton(run.recipeThatDeletedSourceFile.get(s.getId()))));
                 } else {
-                    //printing both the before and after (and including markers in the output) and then comparing the
-                    //output to determine if a change has been made.
-                    if (!original.print(MARKER_ID_PRINTER, ctx).equals(s.print(MARKER_ID_PRINTER, ctx))) {
-                        results.add(new Result(original, s, s.getMarkers()
-                                .findFirst(RecipeThatMadeChanges.class)
-                                .orElseThrow(() -> new IllegalStateException("SourceFile changed but no recipe reported making a change?"))
-                                .recipes));
+                    // comparing fingerprints rather than printed forms to determine if a change has been made,
+                    // since fingerprinting doesn't need to hold either printed form in memory
+                    if (!original.fingerprint().equals(s.fingerprint())) {
+                        Set<Recipe> recipes = run.recipesThatMadeChanges.get(s.getId());
+                        if (recipes == null) {
+                            throw new IllegalStateException("SourceFile changed but no recipe reported making a change?");
+                        }
+                        results.add(new Result(original, s, recipes));
                     }
                 }
             }
@@ -353,13 +543,76 @@ public abstract class Recipe {
         // removed files
         for (SourceFile s : before) {
             if (!afterIds.contains(s.getId())) {
-                results.add(new Result(s, null, singleton(recipeThatDeletedSourceFile.get(s.getId()))));
+                results.add(new Result(s, null, singleton(run.recipeThatDeletedSourceFile.get(s.getId()))));
             }
         }
 
         return results;
     }
 
+    /**
+     * Visit only the changed source files, leaving every other source file as it is.
+     *
+     * @return The source files, with the changed ones replaced by the result of visiting them again, or the same
+     * list of source files if visiting them again made no further changes.
+     */
+    private List<? extends SourceFile> revisit(List<? extends SourceFile> sourceFiles,
+                                               List<? extends SourceFile> changed,
+                                               ExecutionContext ctx,
+                                               RecipeRun run) {
+        if (changed.isEmpty()) {
+            return sourceFiles;
+        }
+
+        Set<SourceFile> changedIdentities = Collections.newSetFromMap(new IdentityHashMap<>());
+        changedIdentities.addAll(changed);
+        List<SourceFile> notVisited = new ArrayList<>(sourceFiles.size() - changed.size());
+        for (SourceFile s : sourceFiles) {
+            if (!changedIdentities.contains(s)) {
+                notVisited.add(s);
+            }
+        }
+
+        List<SourceFile> revisited = visitInternal(changed, notVisited, ctx, run);
+        if (revisited == changed) {
+            return sourceFiles;
+        }
+
+        Map<UUID, SourceFile> revisitedById = revisited.stream()
+                .collect(toMap(SourceFile::getId, Function.identity()));
+        List<SourceFile> merged = new ArrayList<>(sourceFiles.size());
+        for (SourceFile s : sourceFiles) {
+            if (changedIdentities.contains(s)) {
+                // a source file that is missing after being visited again was deleted
+                SourceFile s2 = revisitedById.get(s.getId());
+                if (s2 != null) {
+                    merged.add(s2);
+                }
+            } else {
+                merged.add(s);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * @return The source files in {@code after} which are not present in {@code before}, by identity.
+     */
+    private static List<? extends SourceFile> changed(List<? extends SourceFile> before, List<? extends SourceFile> after) {
+        if (before == after) {
+            return emptyList();
+        }
+        Set<SourceFile> beforeIdentities = Collections.newSetFromMap(new IdentityHashMap<>());
+        beforeIdentities.addAll(before);
+        List<SourceFile> changed = new ArrayList<>();
+        for (SourceFile s : after) {
+            if (!beforeIdentities.contains(s)) {
+                changed.add(s);
+            }
+        }
+        return changed;
+    }
+
     @SuppressWarnings("unused")
     @Incubating(since = "7.0.0")
     public Validated validate(ExecutionContext ctx) {
@@ -407,25 +660,6 @@ public abstract class Recipe {
         return getClass().getName();
     }
 
-    @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-    private static class RecipeThatMadeChanges implements Marker {
-        private final Set<Recipe> recipes;
-
-        @EqualsAndHashCode.Include
-        private final UUID id;
-
-        private RecipeThatMadeChanges(Recipe recipe) {
-            this.recipes = new HashSet<>();
-            this.recipes.add(recipe);
-            id = randomId();
-        }
-
-        @Override
-        public UUID getId() {
-            return id;
-        }
-    }
-
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -439,8 +673,25 @@ public abstract class Recipe {
         return Objects.hash(getName());
     }
 
+    /**
+     * State that is shared by every recipe in a pipeline over the course of one run.
+     */
+    private static class RecipeRun {
+        private final ForkJoinPool forkJoinPool;
+        private final Map<UUID, Set<Recipe>> recipesThatMadeChanges = new ConcurrentHashMap<>();
+        private final Map<UUID, Recipe> recipeThatDeletedSourceFile = new ConcurrentHashMap<>();
+        private final Map<Recipe, WeakIdentityCache<SourceFile, Boolean>> applicableTestResults =
+                Collections.synchronizedMap(new IdentityHashMap<>());
+        private final Map<Recipe, Boolean> applicable = Collections.synchronizedMap(new IdentityHashMap<>());
+        private volatile boolean becameApplicable = false;
+
+        private RecipeRun(ForkJoinPool forkJoinPool) {
+            this.forkJoinPool = forkJoinPool;
+        }
+    }
+
     private static class WatchForNewMessageExecutionContext implements ExecutionContext {
-        private boolean needAnotherCycle = true;
+        private volatile boolean needAnotherCycle = false;
         private final ExecutionContext delegate;
 
         private WatchForNewMessageExecutionContext(ExecutionContext delegate) {
@@ -39,6 +39,16 @@ public interface SourceFile extends Tree {
 
     <T extends SourceFile> T withMarkers(Markers markers);
 
+    /**
+     * @return An index of facts about the contents of this source file, or {@code null} if this kind of source file
+     * isn't indexed.
+     */
+    @Incubating(since = "7.3.0")
+    @Nullable
+    default SourceFileIndex getIndex() {
+        return null;
+    }
+
     @Nullable
     default <S extends Style> S getStyle(Class<S> style) {
         return NamedStyles.merge(style, getMarkers().findAll(NamedStyles.class));
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * Facts about the contents of a source file that are cheap to test, and that recipes can use to rule out source files
+ * that they cannot possibly change without visiting them. See {@link Applicability}.
+ */
+@Incubating(since = "7.3.0")
+public class SourceFileIndex {
+    private final Set<String> types;
+    private final Set<String> methodNames;
+    private final Set<String> tokens;
+
+    public SourceFileIndex(Set<String> types, Set<String> methodNames, Set<String> tokens) {
+        this.types = unmodifiableSet(types);
+        this.methodNames = unmodifiableSet(methodNames);
+        this.tokens = unmodifiableSet(tokens);
+    }
+
+    /**
+     * @return The fully qualified names of the types that are referenced by the source file.
+     */
+    public Set<String> getTypes() {
+        return types;
+    }
+
+    /**
+     * @return The names of the methods that are invoked or referenced by the source file.
+     */
+    public Set<String> getMethodNames() {
+        return methodNames;
+    }
+
+    /**
+     * @return The names and other textual tokens that appear in the source file.
+     */
+    public Set<String> getTokens() {
+        return tokens;
+    }
+}
@@ -16,15 +16,21 @@
 package org.openrewrite;
 
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.openrewrite.internal.FingerprintPrinter;
 import org.openrewrite.internal.StringUtils;
+import org.openrewrite.internal.TreeIds;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.util.UUID;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@c")
 public interface Tree {
+    /**
+     * @return A new id that is unique within this JVM and, with overwhelming probability, across JVMs. See
+     * {@link TreeIds} for how ids are generated.
+     */
     static UUID randomId() {
-        return UUID.randomUUID();
+        return TreeIds.next();
     }
 
     /**
@@ -83,6 +89,18 @@ public interface Tree {
         return printTrimmed(TreePrinter.identity(), new Object());
     }
 
+    /**
+     * Comparing fingerprints is a cheaper way to determine whether two trees print identically than comparing their
+     * printed forms. Markers are part of the fingerprint, so trees that print identically but carry different markers
+     * have different fingerprints.
+     *
+     * @return A fingerprint of this tree's printed form and markers.
+     */
+    @Incubating(since = "7.3.0")
+    default Fingerprint fingerprint() {
+        return Fingerprint.of(print(FingerprintPrinter.markerIdPrinter(), new Object()));
+    }
+
     default boolean isScope(@Nullable Tree tree) {
         return tree != null && tree.getId().equals(getId());
     }
@@ -15,8 +15,6 @@
  */
 package org.openrewrite;
 
-import io.micrometer.core.instrument.Metrics;
-import io.micrometer.core.instrument.Timer;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.marker.Marker;
 import org.openrewrite.marker.Markers;
@@ -46,7 +44,21 @@ public abstract class TreeVisitor<T extends Tree, P> {
         setCursor(new Cursor(null, "root"));
     }
 
-    private List<TreeVisitor<T, P>> afterVisit;
+    List<TreeVisitor<T, P>> afterVisit;
+
+    /**
+     * When visiting shallowly, a visitor only visits the node it is given and leaves its children to be visited by
+     * the visitor that is driving the traversal. See {@link FusedVisitor}.
+     */
+    boolean shallow;
+
+    private boolean visitingShallow;
+
+    /**
+     * Visitors that are applied shallowly to each node once this visitor has visited it.
+     */
+    @Nullable
+    FusedVisitor<T, P> fused;
 
     protected void setCursor(@Nullable Cursor cursor) {
         this.cursor = cursor;
@@ -112,54 +124,145 @@ public abstract class TreeVisitor<T extends Tree, P> {
         return defaultValue(tree, p);
     }
 
+    /**
+     * Whether the visitor is certain to leave a subtree unchanged, so that it need not be visited at all. Neither
+     * {@link #preVisit(Tree, Object)}, {@link #postVisit(Tree, Object)} nor any visit method is called for a subtree
+     * that is skipped, so visitors that collect information about the trees they visit must not skip them.
+     *
+     * @param tree The subtree about to be visited.
+     * @param p    The visit parameter.
+     * @return {@code true} to leave the subtree as it is without visiting it.
+     */
+    @Incubating(since = "7.3.0")
+    protected boolean canSkip(T tree, P p) {
+        return false;
+    }
+
     @Nullable
     public T visit(@Nullable Tree tree, P p, Cursor parent) {
         this.cursor = parent;
         return visit(tree, p);
     }
 
+    /**
+     * Visit a tree with several visitors in turn. When the visitors share a language that offers a
+     * {@link #newTraversal() traversal}, they are fused into a single traversal of the tree, which is only equivalent
+     * to visiting the tree with each of them in turn under the conditions described by {@link FusedVisitor}.
+     *
+     * @param visitors Visitors that aren't visiting any other tree at the time.
+     * @param tree     The tree to visit.
+     * @param p        The visit parameter.
+     * @param parent   The cursor of the tree's parent.
+     * @return The tree as left by the last of the visitors.
+     */
+    @Incubating(since = "7.3.0")
+    @Nullable
+    public static <T extends Tree, P> T visitFused(List<? extends TreeVisitor<T, P>> visitors, @Nullable T tree, P p,
+                                                   Cursor parent) {
+        if (tree == null) {
+            return null;
+        }
+
+        List<TreeVisitor<T, P>> fusing = new ArrayList<>(visitors);
+        FusedVisitor<T, P> fused = fusing.size() > 1 ? FusedVisitor.fuse(fusing) : null;
+        if (fused != null) {
+            return fused.visitTree(tree, p, parent);
+        }
+
+        T t = tree;
+        for (TreeVisitor<T, P> visitor : fusing) {
+            t = visitor.visit(t, p, parent);
+            if (t == null) {
+                break;
+            }
+        }
+        return t;
+    }
+
+    /**
+     * A visitor that traverses trees of this visitor's language without changing them, which drives the traversal
+     * when the visitors of several recipes are {@link Recipe#isFusible() fused}. Subclasses that can be instantiated
+     * to visit every node of a tree without any other effect should return a new instance of themselves.
+     *
+     * @return A new traversal, or {@code null} if this visitor can't be fused with others.
+     */
+    @Incubating(since = "7.3.0")
+    @Nullable
+    protected TreeVisitor<T, P> newTraversal() {
+        return null;
+    }
+
     @Nullable
     public T visit(@Nullable Tree tree, P p) {
         if (tree == null) {
             return defaultValue(null, p);
         }
 
-        Timer.Sample sample = null;
+        if (shallow) {
+            if (visitingShallow) {
+                //noinspection unchecked
+                return (T) tree;
+            }
+            visitingShallow = true;
+            try {
+                return visitInternal(tree, p);
+            } finally {
+                visitingShallow = false;
+            }
+        }
+        return visitInternal(tree, p);
+    }
+
+    @Nullable
+    private T visitInternal(Tree tree, P p) {
+        VisitorMetrics.Sample sample = null;
         boolean topLevel = false;
         if (afterVisit == null) {
             topLevel = true;
-            sample = Timer.start();
+            sample = VisitorMetrics.current().start(getClass());
             afterVisit = new ArrayList<>();
         }
 
-        setCursor(new Cursor(cursor, tree));
+        Cursor c = new Cursor(cursor, tree);
+        c.fused = fused != null || shallow;
+        setCursor(c);
 
         T t = null;
         boolean isAcceptable = tree.isAcceptable(this, p);
         if(isAcceptable) {
             //noinspection unchecked
-            t = preVisit((T) tree, p);
-            if (t != null) {
-                t = t.accept(this, p);
-            }
-            if (t != null) {
-                t = postVisit(t, p);
+            if (canSkip((T) tree, p)) {
+                //noinspection unchecked
+                t = (T) tree;
+            } else {
+                //noinspection unchecked
+                t = preVisit((T) tree, p);
+                if (t != null) {
+                    t = t.accept(this, p);
+                }
+                if (t != null) {
+                    t = postVisit(t, p);
+                }
             }
         }
         setCursor(cursor.getParent());
 
+        if (fused != null && isAcceptable && t != null) {
+            t = fused.visit(t, p, cursor);
+        }
+
         if (topLevel) {
-            sample.stop(Timer.builder("rewrite.visitor.visit")
-                    .tag("visitor.class", getClass().getName())
-                    .register(Metrics.globalRegistry));
+            if (sample != null) {
+                sample.stopVisit();
+            }
             if (t != null) {
                 for (TreeVisitor<T, P> v : afterVisit) {
                     t = v.visit(t, p);
                 }
             }
-            sample.stop(Timer.builder("rewrite.visitor.visit.cumulative")
-                    .tag("visitor.class", getClass().getName())
-                    .register(Metrics.globalRegistry));
+            if (sample != null) {
+                sample.stopCumulative();
+            }
             afterVisit = null;
         }
 
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openrewrite.internal.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times top level {@link TreeVisitor#visit(Tree, Object) visits} of trees, as {@code rewrite.visitor.visit} (the visit
+ * itself) and {@code rewrite.visitor.visit.cumulative} (the visit and every visitor it scheduled to run after it),
+ * tagged with the visitor class.
+ * <p>
+ * Timers are registered once per visitor class rather than on every visit. Visits can be sampled, in which case the
+ * timers only count the sampled visits. When metrics are {@link #disable() disabled}, or the registry is the global
+ * registry and no registry has been added to it, visiting a tree does no timing at all.
+ */
+@Incubating(since = "7.3.0")
+public class VisitorMetrics {
+    private static volatile VisitorMetrics current = new VisitorMetrics(Metrics.globalRegistry, 1);
+
+    @Nullable
+    private final MeterRegistry registry;
+
+    private final int sampleEvery;
+
+    private final ClassValue<Timers> timers = new ClassValue<Timers>() {
+        @Override
+        protected Timers computeValue(Class<?> visitorClass) {
+            assert registry != null;
+            return new Timers(
+                    Timer.builder("rewrite.visitor.visit")
+                            .tag("visitor.class", visitorClass.getName())
+                            .register(registry),
+                    Timer.builder("rewrite.visitor.visit.cumulative")
+                            .tag("visitor.class", visitorClass.getName())
+                            .register(registry)
+            );
+        }
+    };
+
+    private VisitorMetrics(@Nullable MeterRegistry registry, int sampleEvery) {
+        this.registry = registry;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Time visits against a registry.
+     *
+     * @param registry    The registry to register timers with.
+     * @param sampleEvery Time one in this many visits, chosen at random. 1 times every visit.
+     */
+    public static void configure(MeterRegistry registry, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException("Must sample at least one in every visit, but was one in " + sampleEvery);
+        }
+        current = new VisitorMetrics(registry, sampleEvery);
+    }
+
+    /**
+     * Stop timing visits altogether.
+     */
+    public static void disable() {
+        current = new VisitorMetrics(null, 1);
+    }
+
+    static VisitorMetrics current() {
+        return current;
+    }
+
+    /**
+     * @param visitorClass The class of the visitor that is starting a top level visit.
+     * @return A sample to stop once the visit completes, or {@code null} if this visit is not timed.
+     */
+    @Nullable
+    Sample start(Class<?> visitorClass) {
+        if (registry == null) {
+            return null;
+        }
+        if (registry instanceof CompositeMeterRegistry && ((CompositeMeterRegistry) registry).getRegistries().isEmpty()) {
+            return null;
+        }
+        if (sampleEvery > 1 && ThreadLocalRandom.current().nextInt(sampleEvery) != 0) {
+            return null;
+        }
+        Clock clock = registry.config().clock();
+        return new Sample(clock, timers.get(visitorClass));
+    }
+
+    static class Sample {
+        private final Clock clock;
+        private final Timers timers;
+        private final long start;
+
+        private Sample(Clock clock, Timers timers) {
+            this.clock = clock;
+            this.timers = timers;
+            this.start = clock.monotonicTime();
+        }
+
+        void stopVisit() {
+            timers.visit.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        void stopCumulative() {
+            timers.cumulative.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static class Timers {
+        private final Timer visit;
+        private final Timer cumulative;
+
+        private Timers(Timer visit, Timer cumulative) {
+            this.visit = visit;
+            this.cumulative = cumulative;
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An immutable list split into chunks of bounded size. Every update returns a new list that shares all of the chunks
+ * it did not touch with the list it was derived from, so replacing, inserting or removing an element copies one chunk
+ * and the (much shorter) array of chunk references rather than every element. Lookups find their chunk with a binary
+ * search over the chunk offsets.
+ * <p>
+ * Used for long lists of tree elements, like the statements of a large class body, where recipes repeatedly make
+ * small edits to an otherwise unchanged list.
+ *
+ * @param <T> The type of elements in the list.
+ */
+public final class ChunkedList<T> extends AbstractList<T> implements RandomAccess {
+    static final int CHUNK_SIZE = 32;
+
+    private static final ChunkedList<?> EMPTY = new ChunkedList<>(new Object[0][], new int[0], 0);
+
+    private final Object[][] chunks;
+
+    /**
+     * The index of the first element of each chunk. Shared between lists whose chunks have the same sizes.
+     */
+    private final int[] offsets;
+
+    private final int size;
+
+    private ChunkedList(Object[][] chunks, int[] offsets, int size) {
+        this.chunks = chunks;
+        this.offsets = offsets;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ChunkedList<T> empty() {
+        return (ChunkedList<T>) EMPTY;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> ChunkedList<T> copyOf(Collection<? extends T> ls) {
+        if (ls instanceof ChunkedList) {
+            return (ChunkedList<T>) ls;
+        }
+        if (ls.isEmpty()) {
+            return empty();
+        }
+        Object[] all = ls.toArray();
+        Object[][] chunks = split(all, 0, all.length);
+        return new ChunkedList<>(chunks, offsets(chunks), all.length);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        int chunk = chunkOf(index);
+        return (T) chunks[chunk][index - offsets[chunk]];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            int chunk;
+            int i;
+
+            @Override
+            public boolean hasNext() {
+                return chunk < chunks.length;
+            }
+
+            @SuppressWarnings("unchecked")
+            @Override
+            public T next() {
+                if (chunk >= chunks.length) {
+                    throw new NoSuchElementException();
+                }
+                T next = (T) chunks[chunk][i++];
+                if (i == chunks[chunk].length) {
+                    chunk++;
+                    i = 0;
+                }
+                return next;
+            }
+        };
+    }
+
+    /**
+     * @return A list with the element at {@code index} replaced, or this list if it already holds that element.
+     */
+    public ChunkedList<T> with(int index, T element) {
+        if (get(index) == element) {
+            return this;
+        }
+        int chunk = chunkOf(index);
+        Object[][] newChunks = chunks.clone();
+        newChunks[chunk] = chunks[chunk].clone();
+        newChunks[chunk][index - offsets[chunk]] = element;
+        return new ChunkedList<>(newChunks, offsets, size);
+    }
+
+    public ChunkedList<T> inserting(int index, T element) {
+        return replaceRange(index, index, Collections.singletonList(element));
+    }
+
+    public ChunkedList<T> insertingAll(int index, List<? extends T> elements) {
+        return replaceRange(index, index, elements);
+    }
+
+    public ChunkedList<T> appending(T element) {
+        return replaceRange(size, size, Collections.singletonList(element));
+    }
+
+    public ChunkedList<T> removing(int index) {
+        return replaceRange(index, index + 1, Collections.emptyList());
+    }
+
+    /**
+     * Replace the elements from {@code from} (inclusive) to {@code to} (exclusive) with {@code replacement}. Only
+     * the chunks that overlap the replaced range are copied.
+     *
+     * @return A new list, or this list if the range is empty and there is nothing to insert.
+     */
+    public ChunkedList<T> replaceRange(int from, int to, List<? extends T> replacement) {
+        if (from < 0 || to > size || from > to) {
+            throw new IndexOutOfBoundsException("Range: [" + from + ", " + to + "), Size: " + size);
+        }
+        if (from == to && replacement.isEmpty()) {
+            return this;
+        }
+
+        // the chunks [first, last] are the ones overlapping the range, which are rebuilt together with the
+        // replacement. When inserting at the very end, the last chunk absorbs the new elements.
+        int first;
+        int last;
+        if (chunks.length == 0) {
+            first = 0;
+            last = -1;
+        } else {
+            first = from == size ? chunks.length - 1 : chunkOf(from);
+            last = to == from ? first : chunkOf(to - 1);
+        }
+
+        int head = last < first ? 0 : from - offsets[first];
+        int tailStart = last < first ? 0 : to - offsets[last];
+        int tail = last < first ? 0 : chunks[last].length - tailStart;
+
+        Object[] region = new Object[head + replacement.size() + tail];
+        if (head > 0) {
+            System.arraycopy(chunks[first], 0, region, 0, head);
+        }
+        int n = head;
+        for (T t : replacement) {
+            region[n++] = t;
+        }
+        if (tail > 0) {
+            System.arraycopy(chunks[last], tailStart, region, n, tail);
+        }
+
+        Object[][] rebuilt = region.length <= 2 * CHUNK_SIZE ?
+                (region.length == 0 ? new Object[0][] : new Object[][]{region}) :
+                split(region, 0, region.length);
+
+        int kept = chunks.length - (last + 1);
+        Object[][] newChunks = new Object[first + rebuilt.length + kept][];
+        System.arraycopy(chunks, 0, newChunks, 0, first);
+        System.arraycopy(rebuilt, 0, newChunks, first, rebuilt.length);
+        System.arraycopy(chunks, last + 1, newChunks, first + rebuilt.length, kept);
+
+        int newSize = size - (to - from) + replacement.size();
+        return newSize == 0 ? empty() : new ChunkedList<>(newChunks, offsets(newChunks), newSize);
+    }
+
+    /**
+     * Apply a function to each element, copying only those chunks in which some element changed.
+     *
+     * @param map The mapping function. If a null value is returned, the element is dropped.
+     * @return This list if no element has changed, or a new list sharing the unchanged chunks.
+     */
+    @SuppressWarnings("unchecked")
+    public ChunkedList<T> map(BiFunction<Integer, T, T> map) {
+        Object[][] newChunks = chunks;
+        boolean resized = false;
+        for (int c = 0; c < chunks.length; c++) {
+            Object[] chunk = chunks[c];
+            Object[] newChunk = chunk;
+            int n = 0;
+            for (int i = 0; i < chunk.length; i++) {
+                T t = (T) chunk[i];
+                T newT = map.apply(offsets[c] + i, t);
+                if (newT != t && newChunk == chunk) {
+                    newChunk = new Object[chunk.length];
+                    System.arraycopy(chunk, 0, newChunk, 0, i);
+                }
+                if (newChunk != chunk) {
+                    if (newT != null) {
+                        newChunk[n++] = newT;
+                    }
+                } else {
+                    n++;
+                }
+            }
+            if (newChunk != chunk) {
+                if (newChunks == chunks) {
+                    newChunks = chunks.clone();
+                }
+                if (n < chunk.length) {
+                    newChunk = Arrays.copyOf(newChunk, n);
+                    resized = true;
+                }
+                newChunks[c] = newChunk;
+            }
+        }
+
+        if (newChunks == chunks) {
+            return this;
+        }
+        if (!resized) {
+            return new ChunkedList<>(newChunks, offsets, size);
+        }
+        List<Object[]> nonEmpty = new ArrayList<>(newChunks.length);
+        int newSize = 0;
+        for (Object[] chunk : newChunks) {
+            if (chunk.length > 0) {
+                nonEmpty.add(chunk);
+                newSize += chunk.length;
+            }
+        }
+        Object[][] compacted = nonEmpty.toArray(new Object[0][]);
+        return newSize == 0 ? empty() : new ChunkedList<>(compacted, offsets(compacted), newSize);
+    }
+
+    /**
+     * Apply a function to each element, producing a list of another type with the same chunk layout. Lists with the
+     * same layout share their offsets, so a list derived from one that is later derived from the result stays cheap
+     * to edit.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> ChunkedList<R> transform(Function<? super T, ? extends R> fn) {
+        Object[][] newChunks = new Object[chunks.length][];
+        for (int c = 0; c < chunks.length; c++) {
+            Object[] chunk = chunks[c];
+            Object[] newChunk = new Object[chunk.length];
+            for (int i = 0; i < chunk.length; i++) {
+                newChunk[i] = fn.apply((T) chunk[i]);
+            }
+            newChunks[c] = newChunk;
+        }
+        return new ChunkedList<>(newChunks, offsets, size);
+    }
+
+    int chunkCount() {
+        return chunks.length;
+    }
+
+    int maxChunkLength() {
+        int max = 0;
+        for (Object[] chunk : chunks) {
+            max = Math.max(max, chunk.length);
+        }
+        return max;
+    }
+
+    private int chunkOf(int index) {
+        int lo = 0;
+        int hi = offsets.length - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static Object[][] split(Object[] all, int from, int to) {
+        int length = to - from;
+        int count = (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        Object[][] chunks = new Object[count][];
+        for (int c = 0; c < count; c++) {
+            // spread the elements evenly so that no chunk is left much smaller than the others
+            int start = from + (int) ((long) length * c / count);
+            int end = from + (int) ((long) length * (c + 1) / count);
+            chunks[c] = Arrays.copyOfRange(all, start, end);
+        }
+        return chunks;
+    }
+
+    private static int[] offsets(Object[][] chunks) {
+        int[] offsets = new int[chunks.length];
+        int offset = 0;
+        for (int c = 0; c < chunks.length; c++) {
+            offsets[c] = offset;
+            offset += chunks[c].length;
+        }
+        return offsets;
+    }
+}
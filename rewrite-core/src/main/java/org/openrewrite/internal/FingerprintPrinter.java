@@ -0,0 +1,130 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.Fingerprint;
+import org.openrewrite.Tree;
+import org.openrewrite.TreePrinter;
+import org.openrewrite.marker.Markers;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Predicate;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Fingerprints the output of a printer as it is produced rather than accumulating it, so that a tree's printed form
+ * never needs to be held in memory in its entirety. Markers are reified as their hash codes, so that two trees that
+ * print identically but carry different markers have different fingerprints.
+ * <p>
+ * The fingerprint of each cacheable tree is recorded as it is printed. A printer that consults the cache can skip
+ * printing a subtree that has been fingerprinted before, and {@link #append(Fingerprint, StringBuilder) append} its
+ * fingerprint instead, which makes fingerprinting a modified copy of a tree proportional to the size of the
+ * modification.
+ * <p>
+ * Text is discarded from the printer accumulator once it has been fingerprinted, so this can only be used with printers
+ * that append to their accumulator and never read it back.
+ *
+ * @param <P> The printer context type.
+ */
+public class FingerprintPrinter<P> implements TreePrinter<P> {
+    private final WeakIdentityCache<Tree, Fingerprint> cache;
+    private final Predicate<Tree> cacheable;
+
+    /**
+     * The fingerprints of the trees that are in the process of being printed. The bottom entry is the fingerprint of
+     * everything printed so far, outside of any tree.
+     */
+    private final Deque<Fingerprint> printing = new ArrayDeque<>();
+
+    public FingerprintPrinter(WeakIdentityCache<Tree, Fingerprint> cache, Predicate<Tree> cacheable) {
+        this.cache = cache;
+        this.cacheable = cacheable;
+        printing.push(Fingerprint.EMPTY);
+    }
+
+    /**
+     * For printers that read back their accumulator, and so can't have their output fingerprinted as it is produced.
+     * Printing with this and fingerprinting the result yields the same fingerprint as printing with a
+     * {@link FingerprintPrinter}.
+     *
+     * @return A printer that reifies markers in the same way as a {@link FingerprintPrinter}.
+     */
+    public static <P> TreePrinter<P> markerIdPrinter() {
+        return new TreePrinter<P>() {
+            @Override
+            public void doBefore(Tree tree, StringBuilder printerAcc, P p) {
+                if (tree instanceof Markers) {
+                    printerAcc.append(markerIds((Markers) tree));
+                }
+            }
+        };
+    }
+
+    /**
+     * @return The fingerprint of a {@link Markers} element, in the form it takes in a tree's fingerprint.
+     */
+    public static String markerIds(Markers markers) {
+        String markerIds = markers.entries().stream()
+                .map(marker -> String.valueOf(marker.hashCode()))
+                .collect(joining(","));
+        return markerIds.isEmpty() ? "" : "markers[" + markerIds + "]->";
+    }
+
+    @Override
+    public void doBefore(Tree tree, StringBuilder printerAcc, P p) {
+        fold(printerAcc);
+        printing.push(Fingerprint.EMPTY);
+        if (tree instanceof Markers) {
+            printerAcc.append(markerIds((Markers) tree));
+        }
+    }
+
+    @Override
+    public void doAfter(Tree tree, StringBuilder printerAcc, P p) {
+        fold(printerAcc);
+        Fingerprint fingerprint = printing.pop();
+        if (cacheable.test(tree)) {
+            cache.put(tree, fingerprint);
+        }
+        printing.push(printing.pop().append(fingerprint));
+    }
+
+    /**
+     * Append the fingerprint of a subtree that was not printed, in place of printing it.
+     */
+    public void append(Fingerprint fingerprint, StringBuilder printerAcc) {
+        fold(printerAcc);
+        printing.push(printing.pop().append(fingerprint));
+    }
+
+    /**
+     * @return The fingerprint of everything printed so far.
+     */
+    public Fingerprint getFingerprint(StringBuilder printerAcc) {
+        fold(printerAcc);
+        assert printing.size() == 1 : "Fingerprint requested while trees are still being printed";
+        return printing.peek();
+    }
+
+    private void fold(StringBuilder printerAcc) {
+        if (printerAcc.length() > 0) {
+            printing.push(printing.pop().append(printerAcc, 0, printerAcc.length()));
+            printerAcc.setLength(0);
+        }
+    }
+}
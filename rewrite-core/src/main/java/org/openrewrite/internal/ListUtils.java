@@ -23,7 +23,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
@@ -32,6 +31,12 @@ import java.util.stream.Stream;
 import static java.util.Collections.singletonList;
 
 public final class ListUtils {
+    /**
+     * The size from which {@link #replaceRange(List, int, int, List)} switches to a {@link ChunkedList}. Shorter
+     * lists are cheaper to copy outright.
+     */
+    public static final int CHUNKED_THRESHOLD = 128;
+
     private ListUtils() {
     }
 
@@ -85,6 +90,10 @@ public final class ListUtils {
         T last = ls.get(ls.size() - 1);
         T newLast = mapLast.apply(last);
         if (last != newLast) {
+            if (ls instanceof ChunkedList) {
+                ChunkedList<T> chunked = (ChunkedList<T>) ls;
+                return newLast == null ? chunked.removing(ls.size() - 1) : chunked.with(ls.size() - 1, newLast);
+            }
             List<T> newLs = new ArrayList<>(ls);
             if (newLast == null) {
                 newLs.remove(ls.size() - 1);
@@ -103,6 +112,10 @@ public final class ListUtils {
         T first = ls.iterator().next();
         T newFirst = mapFirst.apply(first);
         if (first != newFirst) {
+            if (ls instanceof ChunkedList) {
+                ChunkedList<T> chunked = (ChunkedList<T>) ls;
+                return newFirst == null ? chunked.removing(0) : chunked.with(0, newFirst);
+            }
             List<T> newLs = new ArrayList<>(ls);
             if (newFirst == null) {
                 newLs.remove(0);
@@ -114,28 +127,39 @@ public final class ListUtils {
         return ls;
     }
 
+    /**
+     * Apply function to each element of the list. If any element has been modified then
+     * a new list will be returned where the modified elements have been replaced with their new version.
+     * The new list is only allocated once the first element changes, and elements before it are copied in bulk.
+     * A {@link ChunkedList} is mapped into another {@link ChunkedList} that shares its unchanged chunks.
+     *
+     * @param ls  The original list
+     * @param map The mapping function. If a null value is returned, the item is dropped from the resultant list
+     * @param <T> The type of the list
+     * @return The original list if no element has changed, or a new list.
+     */
     public static <T> List<T> map(List<T> ls, BiFunction<Integer, T, T> map) {
         if (ls == null || ls.isEmpty()) {
             return ls;
         }
-        List<T> newLs = ls;
+        if (ls instanceof ChunkedList) {
+            return ((ChunkedList<T>) ls).map(map);
+        }
+
+        List<T> newLs = null;
         for (int i = 0; i < ls.size(); i++) {
             T tree = ls.get(i);
             T newTree = map.apply(i, tree);
-            if (newTree != tree) {
-                if (newLs == ls) {
-                    newLs = new ArrayList<>(ls);
-                }
-                newLs.set(i, newTree);
+            if (newLs == null && newTree != tree) {
+                newLs = new ArrayList<>(ls.size());
+                newLs.addAll(ls.subList(0, i));
+            }
+            if (newLs != null && newTree != null) {
+                newLs.add(newTree);
             }
         }
 
-        if (newLs != ls) {
-            //noinspection StatementWithEmptyBody
-            while (newLs.remove(null)) ;
-        }
-
-        return newLs;
+        return newLs == null ? ls : newLs;
     }
 
     public static <T> List<T> map(List<T> ls, UnaryOperator<T> map) {
@@ -161,38 +185,35 @@ public final class ListUtils {
             return ls;
         }
 
-        AtomicReference<List<T>> newLs = new AtomicReference<>(ls);
-        for (int i = 0; i < ls.size(); i++) {
-            int index = i;
-
-            ForkJoinTask<?> task = ForkJoinTask.adapt(() -> {
-                T tree = ls.get(index);
-                T newTree = map.apply(index, tree);
-                if (newTree != tree) {
-                    newLs.updateAndGet(l -> l == ls ? new ArrayList<>(ls) : l)
-                            .set(index, newTree);
-                }
-            });
-
-            pool.invoke(task);
-            task.join();
+        if (ls.size() == 1 || pool.getParallelism() == 1) {
+            return map(ls, map);
         }
 
-        if (newLs.get() != ls) {
-            //noinspection StatementWithEmptyBody
-            while (newLs.get().remove(null)) ;
+        // each element is mapped by its own task so that elements are mapped concurrently, and the results are
+        // assembled in the original order afterwards
+        List<ForkJoinTask<T>> tasks = new ArrayList<>(ls.size());
+        for (int i = 0; i < ls.size(); i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> map.apply(index, ls.get(index))));
         }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
 
-        return newLs.get();
+        return map(ls, (i, t) -> tasks.get(i).join());
     }
 
     public static <T> List<T> concat(@Nullable List<T> ls, T t) {
+        if (ls instanceof ChunkedList) {
+            return ((ChunkedList<T>) ls).appending(t);
+        }
         List<T> newLs = ls == null ? new ArrayList<>(1) : new ArrayList<>(ls);
         newLs.add(t);
         return newLs;
     }
 
     public static <T> List<T> concat(T t, @Nullable List<T> ls) {
+        if (ls instanceof ChunkedList) {
+            return ((ChunkedList<T>) ls).inserting(0, t);
+        }
         List<T> newLs = ls == null ? new ArrayList<>(1) : new ArrayList<>(ls.size() + 1);
         newLs.add(t);
         if (ls != null) {
@@ -205,6 +226,9 @@ public final class ListUtils {
         if (ls == null) {
             return t;
         }
+        if (ls instanceof ChunkedList) {
+            return ((ChunkedList<T>) ls).insertingAll(ls.size(), t);
+        }
         List<T> newLs = new ArrayList<>(ls);
         newLs.addAll(t);
         return newLs;
@@ -214,8 +238,36 @@ public final class ListUtils {
         if(ls == null) {
             return t;
         }
+        if (ls instanceof ChunkedList) {
+            return ((ChunkedList<T>) ls).insertingAll(index, t);
+        }
         List<T> newLs = new ArrayList<>(ls);
         newLs.addAll(index, t);
         return newLs;
     }
+
+    /**
+     * Replace a range of the list. Lists at least {@link #CHUNKED_THRESHOLD} elements long are converted to a
+     * {@link ChunkedList}, so that this and later edits share the elements outside the edited range.
+     *
+     * @param ls          The original list.
+     * @param from        The first index to replace, inclusive.
+     * @param to          The last index to replace, exclusive.
+     * @param replacement The elements to put in place of the range.
+     * @param <T>         The type of the list.
+     * @return The original list if the range is empty and there is nothing to insert, or a new list.
+     */
+    public static <T> List<T> replaceRange(List<T> ls, int from, int to, List<? extends T> replacement) {
+        if (from == to && replacement.isEmpty()) {
+            return ls;
+        }
+        if (ls instanceof ChunkedList || ls.size() - (to - from) + replacement.size() >= CHUNKED_THRESHOLD) {
+            return ChunkedList.copyOf(ls).replaceRange(from, to, replacement);
+        }
+        List<T> newLs = new ArrayList<>(ls.size() - (to - from) + replacement.size());
+        newLs.addAll(ls.subList(0, from));
+        newLs.addAll(replacement);
+        newLs.addAll(ls.subList(to, ls.size()));
+        return newLs;
+    }
 }
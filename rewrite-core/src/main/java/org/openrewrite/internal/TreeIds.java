@@ -0,0 +1,62 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates the ids of trees and markers. {@link UUID#randomUUID()} draws 16 bytes from a shared {@link SecureRandom}
+ * for every id, which shows up prominently when parsing, since every node of every tree needs one. Instead, ids share
+ * a random 64-bit prefix chosen once per JVM and are told apart by a 62-bit sequence number. Each thread reserves
+ * sequence numbers in blocks, so generating an id neither contends with other threads nor touches a random number
+ * generator.
+ * <p>
+ * Ids remain valid version 4 (random) {@link UUID}s, so code that stores, compares or serializes {@code getId()} is
+ * unaffected. Ids from different JVMs differ in their prefix. Setting the system property {@code rewrite.ids} to
+ * {@code random} restores fully random ids.
+ */
+public final class TreeIds {
+    private static final int BLOCK_SIZE = 1024;
+
+    private static final boolean RANDOM = "random".equalsIgnoreCase(System.getProperty("rewrite.ids"));
+
+    private static final long PREFIX = (new SecureRandom().nextLong() & ~0xF000L) | 0x4000L;
+
+    private static final AtomicLong NEXT_BLOCK = new AtomicLong();
+
+    /**
+     * The next sequence number of this thread's block, and the end of the block.
+     */
+    private static final ThreadLocal<long[]> BLOCK = ThreadLocal.withInitial(() -> new long[2]);
+
+    private TreeIds() {
+    }
+
+    public static UUID next() {
+        if (RANDOM) {
+            return UUID.randomUUID();
+        }
+        long[] block = BLOCK.get();
+        if (block[0] == block[1]) {
+            block[0] = NEXT_BLOCK.getAndAdd(BLOCK_SIZE);
+            block[1] = block[0] + BLOCK_SIZE;
+        }
+        // the two most significant bits of the least significant half carry the IETF variant
+        return new UUID(PREFIX, (block[0]++ & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Associates values with keys by identity rather than equality, without preventing the keys from being garbage
+ * collected. Trees are compared for equality by id, so that different versions of the same tree are equal, which rules
+ * out {@link java.util.WeakHashMap} for caching data that is specific to one version of a tree.
+ * <p>
+ * Values must not reference their keys, or the keys will never be collected.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class WeakIdentityCache<K, V> {
+    private final ReferenceQueue<K> collected = new ReferenceQueue<>();
+    private final Map<IdentityWeakReference<K>, V> values = new ConcurrentHashMap<>();
+
+    @Nullable
+    public V get(K key) {
+        expungeCollectedKeys();
+        return values.get(new IdentityWeakReference<>(key, null));
+    }
+
+    public void put(K key, V value) {
+        expungeCollectedKeys();
+        values.put(new IdentityWeakReference<>(key, collected), value);
+    }
+
+    public void remove(K key) {
+        expungeCollectedKeys();
+        values.remove(new IdentityWeakReference<>(key, null));
+    }
+
+    public int size() {
+        expungeCollectedKeys();
+        return values.size();
+    }
+
+    private void expungeCollectedKeys() {
+        Reference<? extends K> ref;
+        while ((ref = collected.poll()) != null) {
+            //noinspection SuspiciousMethodCalls
+            values.remove(ref);
+        }
+    }
+
+    private static class IdentityWeakReference<T> extends WeakReference<T> {
+        private final int hash;
+
+        IdentityWeakReference(T referent, @Nullable ReferenceQueue<? super T> queue) {
+            super(referent, queue);
+            this.hash = System.identityHashCode(referent);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof IdentityWeakReference)) {
+                return false;
+            }
+            Object referent = get();
+            return referent != null && referent == ((IdentityWeakReference<?>) o).get();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
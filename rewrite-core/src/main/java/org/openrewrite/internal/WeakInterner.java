@@ -0,0 +1,171 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal;
+
+import org.openrewrite.internal.lang.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * An interning table that is safe to use from many threads and does not prevent interned values from being garbage
+ * collected. Several variants may be interned under the same key, for flyweights whose key does not fully determine
+ * their identity.
+ * <p>
+ * Looking up a value that is already interned takes no locks. Adding one takes a lock on one of a fixed number of
+ * stripes chosen by the key's hash, so threads interning values under different keys rarely contend.
+ *
+ * @param <K> The key type.
+ * @param <V> The value type.
+ */
+public class WeakInterner<K, V> {
+    private static final int STRIPES = 64;
+
+    private final Object[] stripes = new Object[STRIPES];
+    private final ReferenceQueue<V> collected = new ReferenceQueue<>();
+
+    /**
+     * The variants of each key. Arrays are never modified once published, only replaced under the key's stripe lock.
+     */
+    private final Map<K, KeyedReference<K, V>[]> variants = new ConcurrentHashMap<>();
+
+    public WeakInterner() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    /**
+     * @param key    The key to intern a value under.
+     * @param select Given an immutable list of the live values already interned under the key, selects the value to
+     *               use. When the selected value is not yet interned, it is added to the variants of the key. May be
+     *               called more than once, so it should not have side effects.
+     * @return The selected value.
+     */
+    public V intern(K key, Function<List<V>, V> select) {
+        expungeCollectedValues();
+
+        List<V> live = live(variants.get(key));
+        V selected = select.apply(live);
+        if (containsIdentical(live, selected)) {
+            return selected;
+        }
+
+        synchronized (stripe(key)) {
+            KeyedReference<K, V>[] refs = variants.get(key);
+            live = live(refs);
+            selected = select.apply(live);
+            if (!containsIdentical(live, selected)) {
+                KeyedReference<K, V> ref = new KeyedReference<>(key, selected, collected);
+                KeyedReference<K, V>[] newRefs;
+                if (refs == null) {
+                    //noinspection unchecked
+                    newRefs = new KeyedReference[]{ref};
+                } else {
+                    newRefs = Arrays.copyOf(refs, refs.length + 1);
+                    newRefs[refs.length] = ref;
+                }
+                variants.put(key, newRefs);
+            }
+            return selected;
+        }
+    }
+
+    public int size() {
+        expungeCollectedValues();
+        return variants.size();
+    }
+
+    private Object stripe(K key) {
+        int h = key.hashCode();
+        return stripes[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+
+    /**
+     * @return The values of the references that are still live. The list is immutable, and shared when empty. Keys
+     * usually have a single variant, which is returned without copying any array.
+     */
+    private List<V> live(@Nullable KeyedReference<K, V>[] refs) {
+        if (refs == null) {
+            return Collections.emptyList();
+        }
+        if (refs.length == 1) {
+            V v = refs[0].get();
+            return v == null ? Collections.emptyList() : Collections.singletonList(v);
+        }
+        List<V> live = new ArrayList<>(refs.length);
+        for (KeyedReference<K, V> ref : refs) {
+            V v = ref.get();
+            if (v != null) {
+                live.add(v);
+            }
+        }
+        return Collections.unmodifiableList(live);
+    }
+
+    private static <V> boolean containsIdentical(List<V> live, V value) {
+        for (V v : live) {
+            if (v == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void expungeCollectedValues() {
+        Reference<? extends V> ref;
+        while ((ref = collected.poll()) != null) {
+            KeyedReference<K, V> collectedRef = (KeyedReference<K, V>) ref;
+            K key = collectedRef.key;
+            synchronized (stripe(key)) {
+                KeyedReference<K, V>[] refs = variants.get(key);
+                if (refs == null) {
+                    continue;
+                }
+                int n = 0;
+                KeyedReference<K, V>[] newRefs = new KeyedReference[refs.length];
+                for (KeyedReference<K, V> r : refs) {
+                    if (r != collectedRef) {
+                        newRefs[n++] = r;
+                    }
+                }
+                if (n == 0) {
+                    variants.remove(key);
+                } else if (n < refs.length) {
+                    variants.put(key, Arrays.copyOf(newRefs, n));
+                }
+            }
+        }
+    }
+
+    private static class KeyedReference<K, V> extends WeakReference<V> {
+        private final K key;
+
+        KeyedReference(K key, V referent, ReferenceQueue<? super V> queue) {
+            super(referent, queue);
+            this.key = key;
+        }
+    }
+}
@@ -19,4 +19,13 @@ import org.openrewrite.TreeVisitor;
 
 public class PlainTextVisitor<P> extends TreeVisitor<PlainText, P> {
 
+    @Override
+    public String getLanguage() {
+        return "text";
+    }
+
+    @Override
+    protected TreeVisitor<PlainText, P> newTraversal() {
+        return new PlainTextVisitor<>();
+    }
 }
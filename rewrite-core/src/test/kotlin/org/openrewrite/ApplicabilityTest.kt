@@ -0,0 +1,78 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.marker.Markers
+import org.openrewrite.text.PlainText
+import org.openrewrite.text.PlainTextVisitor
+
+class ApplicabilityTest {
+    private fun indexed(text: String, vararg tokens: String) = object : PlainText(randomId(), Markers.EMPTY, text) {
+        override fun getIndex() = SourceFileIndex(emptySet(), emptySet(), tokens.toSet())
+    }
+
+    @Test
+    fun anyValueOfEveryCondition() {
+        val applicability = Applicability.tokens("hello", "goodbye").andTokens("world")
+
+        assertThat(applicability.test(indexed("hello world", "hello", "world"))).isTrue
+        assertThat(applicability.test(indexed("goodbye world", "goodbye", "world"))).isTrue
+        assertThat(applicability.test(indexed("hello", "hello"))).isFalse
+    }
+
+    @Test
+    fun unindexedSourceFilesSatisfyIndexConditions() {
+        assertThat(Applicability.types("java.util.List").test(PlainText(randomId(), Markers.EMPTY, "hello"))).isTrue
+    }
+
+    @Test
+    fun indexAloneIgnoresFileExtensions() {
+        val applicability = Applicability.fileExtensions(".java").andTokens("hello")
+
+        assertThat(applicability.test(SourceFileIndex(emptySet(), emptySet(), setOf("hello")))).isTrue
+        assertThat(applicability.test(SourceFileIndex(emptySet(), emptySet(), setOf("goodbye")))).isFalse
+    }
+
+    @Test
+    fun fileExtensions() {
+        val text = PlainText(randomId(), Markers.EMPTY, "hello")
+        assertThat(Applicability.fileExtensions(".txt").test(text)).isTrue
+        assertThat(Applicability.fileExtensions(".java", ".xml").test(text)).isFalse
+    }
+
+    @Test
+    fun inapplicableSourceFilesAreNotVisited() {
+        val visited = mutableListOf<String>()
+
+        object : Recipe() {
+            override fun getDisplayName() = "Visit hello"
+
+            override fun getApplicability() = Applicability.tokens("hello")
+
+            override fun getVisitor() = object : PlainTextVisitor<ExecutionContext>() {
+                override fun visit(tree: Tree?, p: ExecutionContext): PlainText? {
+                    visited.add((tree as PlainText).print(p))
+                    return tree
+                }
+            }
+        }.run(listOf(indexed("hello world", "hello", "world"), indexed("goodbye world", "goodbye", "world")))
+
+        assertThat(visited).containsExactly("hello world")
+    }
+}
@@ -64,4 +64,46 @@ class CursorTest {
         val cursor = Cursor(Cursor(Cursor(null, 1), t), 2)
         assertThat(cursor.getPathAsStream { it is PlainText }.toList()).containsExactly(t)
     }
+
+    @Test
+    fun manyMessages() {
+        val cursor = Cursor(null, 1)
+        for (i in 0 until 10) {
+            cursor.putMessage("key$i", i)
+        }
+        cursor.putMessage("key3", 33)
+
+        assertThat(cursor.pollMessage<Int>("key0")).isEqualTo(0)
+        assertThat(cursor.getMessage<Int>("key0")).isNull()
+        assertThat(cursor.getMessage<Int>("key3")).isEqualTo(33)
+        assertThat(cursor.getMessage<Int>("key9")).isEqualTo(9)
+        assertThat(cursor.computeMessageIfAbsent("key0") { 100 }).isEqualTo(100)
+        assertThat(cursor.computeMessageIfAbsent("key0") { 200 }).isEqualTo(100)
+    }
+
+    @Test
+    fun firstEnclosingIsRememberedForDescendants() {
+        val t = PlainText(randomId(), Markers.EMPTY, "test")
+        val parent = Cursor(Cursor(null, t), 1)
+        assertThat(parent.firstEnclosing(PlainText::class.java)).isSameAs(t)
+        assertThat(parent.firstEnclosing(String::class.java)).isNull()
+
+        val child = Cursor(Cursor(parent, 2), "child")
+        assertThat(child.firstEnclosing(PlainText::class.java)).isSameAs(t)
+        assertThat(child.firstEnclosing(String::class.java)).isEqualTo("child")
+        assertThat(Cursor(parent, 3).firstEnclosing(String::class.java)).isNull()
+    }
+
+    @Test
+    fun messagesDoNotAffectEquality() {
+        val t = PlainText(randomId(), Markers.EMPTY, "test")
+        val cursor = Cursor(null, t)
+        val other = Cursor(null, t)
+        cursor.putMessage("key", 1)
+        other.putMessage("key", 2)
+        other.putMessage("another", 3)
+
+        assertThat(cursor).isEqualTo(other)
+        assertThat(cursor.hashCode()).isEqualTo(other.hashCode())
+    }
 }
@@ -0,0 +1,46 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.marker.Markers
+import org.openrewrite.text.PlainText
+
+class FingerprintTest {
+    @Test
+    fun concatenation() {
+        assertThat(Fingerprint.of("hello").append(Fingerprint.of(" world")))
+            .isEqualTo(Fingerprint.of("hello world"))
+            .isEqualTo(Fingerprint.of("hello w").append(Fingerprint.of("orld")))
+            .isEqualTo(Fingerprint.EMPTY.append(Fingerprint.of("hello world")).append(Fingerprint.EMPTY))
+    }
+
+    @Test
+    fun differentText() {
+        assertThat(Fingerprint.of("hello world")).isNotEqualTo(Fingerprint.of("hello, world"))
+        assertThat(Fingerprint.of("ab")).isNotEqualTo(Fingerprint.of("ba"))
+        assertThat(Fingerprint.of("\u0000")).isNotEqualTo(Fingerprint.EMPTY)
+    }
+
+    @Test
+    fun sameTextInDifferentTrees() {
+        assertThat(PlainText(randomId(), Markers.EMPTY, "hello").fingerprint())
+            .isEqualTo(PlainText(randomId(), Markers.EMPTY, "hello").fingerprint())
+            .isNotEqualTo(PlainText(randomId(), Markers.EMPTY, "goodbye").fingerprint())
+    }
+}
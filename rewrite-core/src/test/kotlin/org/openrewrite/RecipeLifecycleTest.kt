@@ -95,6 +95,164 @@ class RecipeLifecycleTest {
         assertThat(results.map { it.recipesThatMadeChanges.map { r -> r.name }.first() }).containsExactly("test.DeletingRecipe")
     }
 
+    @Test
+    fun visitsAllSourceFiles() {
+        val generating = object : Recipe() {
+            override fun getDisplayName() = "Generating"
+
+            override fun visit(before: List<SourceFile>, ctx: ExecutionContext) =
+                before + PlainText(randomId(), Markers.EMPTY, "test")
+        }
+
+        val visitorOnly = object : Recipe() {
+            override fun getDisplayName() = "Visitor only"
+
+            override fun getVisitor() = PlainTextVisitor<ExecutionContext>()
+        }
+
+        assertThat(visitorOnly.visitsAllSourceFiles()).isFalse
+        assertThat(generating.visitsAllSourceFiles()).isTrue
+        assertThat(visitorOnly.doNext(generating).visitsAllSourceFiles()).isTrue
+    }
+
+    @Test
+    fun onlyChangedSourceFilesAreVisitedAgain() {
+        val visits = mutableMapOf<String, Int>()
+
+        val results = object : Recipe() {
+            override fun getDisplayName() = "Change hello"
+
+            override fun getVisitor() = object : PlainTextVisitor<ExecutionContext>() {
+                override fun visit(tree: Tree?, p: ExecutionContext): PlainText? {
+                    val text = (tree as PlainText).print(p)
+                    visits.merge(text.substringBefore(' '), 1, Int::plus)
+                    return if (text == "hello") tree.withText("hello world") else tree
+                }
+            }
+        }.run(listOf(
+            PlainText(randomId(), Markers.EMPTY, "hello"),
+            PlainText(randomId(), Markers.EMPTY, "goodbye")
+        ))
+
+        assertThat(results).hasSize(1)
+        assertThat(visits).containsEntry("hello", 2).containsEntry("goodbye", 1)
+    }
+
+    @Test
+    fun sourceFilesAreVisitedAgainWhenARecipeBecomesApplicable() {
+        fun changeText(from: String, to: String) = object : PlainTextVisitor<ExecutionContext>() {
+            override fun visit(tree: Tree?, p: ExecutionContext): PlainText? {
+                val text = tree as PlainText
+                return if (text.print(p) == from) text.withText(to) else text
+            }
+        }
+
+        val composite = object : Recipe() {
+            override fun getDisplayName() = "Composite"
+        }
+            .doNext(object : Recipe() {
+                override fun getDisplayName() = "Change goodbye once hello changed"
+                override fun getApplicableTest() = changeText("hello world", "")
+                override fun getVisitor() = changeText("goodbye", "goodbye world")
+            })
+            .doNext(object : Recipe() {
+                override fun getDisplayName() = "Change hello"
+                override fun getVisitor() = changeText("hello", "hello world")
+            })
+
+        val results = composite.run(listOf(
+            PlainText(randomId(), Markers.EMPTY, "hello"),
+            PlainText(randomId(), Markers.EMPTY, "goodbye")
+        ))
+
+        assertThat(results.map { it.after!!.print() }).containsExactlyInAnyOrder("hello world", "goodbye world")
+    }
+
+    @Test
+    fun applicableTestRunsOnTheCallingThreadWithoutParallelism() {
+        val testedOn = mutableSetOf<Thread>()
+
+        object : Recipe() {
+            override fun getDisplayName() = "Applicable test"
+
+            override fun getApplicableTest() = object : PlainTextVisitor<ExecutionContext>() {
+                override fun visit(tree: Tree?, p: ExecutionContext): PlainText? {
+                    testedOn.add(Thread.currentThread())
+                    return tree as PlainText
+                }
+            }
+        }.run(listOf(
+            PlainText(randomId(), Markers.EMPTY, "hello"),
+            PlainText(randomId(), Markers.EMPTY, "goodbye")
+        ))
+
+        assertThat(testedOn).containsExactly(Thread.currentThread())
+    }
+
+    @Test
+    fun fusedVisitorsAttributeChangesToTheirRecipes() {
+        fun fusible(name: String, from: String, to: String) = object : Recipe() {
+            override fun getName() = name
+            override fun getDisplayName() = name
+            override fun isFusible() = true
+
+            override fun getVisitor() = object : PlainTextVisitor<ExecutionContext>() {
+                override fun visit(tree: Tree?, p: ExecutionContext): PlainText? {
+                    val text = tree as PlainText
+                    return if (text.print(p) == from) text.withText(to) else text
+                }
+            }
+        }
+
+        val composite = object : Recipe() {
+            override fun getDisplayName() = "Composite"
+        }
+            .doNext(fusible("test.Hello", "hello", "hello world"))
+            .doNext(fusible("test.Unused", "unused", "used"))
+            .doNext(fusible("test.Shout", "hello world", "HELLO WORLD"))
+
+        val results = composite.run(listOf(PlainText(randomId(), Markers.EMPTY, "hello")))
+
+        assertThat(results).hasSize(1)
+        assertThat(results[0].after!!.print()).isEqualTo("HELLO WORLD")
+        assertThat(results[0].recipesThatMadeChanges.map { it.name })
+            .containsExactlyInAnyOrder("test.Hello", "test.Shout")
+    }
+
+    @Test
+    fun fusedVisitorsCannotPutCursorMessages() {
+        fun fusible(name: String, visitor: PlainTextVisitor<ExecutionContext>) = object : Recipe() {
+            override fun getName() = name
+            override fun getDisplayName() = name
+            override fun isFusible() = true
+            override fun getVisitor() = visitor
+        }
+
+        val composite = object : Recipe() {
+            override fun getDisplayName() = "Composite"
+        }
+            .doNext(fusible("test.Hello", object : PlainTextVisitor<ExecutionContext>() {
+                override fun visit(tree: Tree?, p: ExecutionContext): PlainText? =
+                    (tree as PlainText).withText("hello world")
+            }))
+            .doNext(fusible("test.Message", object : PlainTextVisitor<ExecutionContext>() {
+                override fun preVisit(tree: PlainText, p: ExecutionContext): PlainText {
+                    cursor.putMessage("visited", true)
+                    return tree
+                }
+            }))
+
+        val errors = mutableListOf<Throwable>()
+        val results = composite.run(
+            listOf(PlainText(randomId(), Markers.EMPTY, "hello")),
+            InMemoryExecutionContext { errors.add(it) }
+        )
+
+        assertThat(results).isEmpty()
+        assertThat(errors).hasSize(1)
+        assertThat(errors[0]).isInstanceOf(IllegalStateException::class.java)
+    }
+
     @Suppress("USELESS_IS_CHECK")
     class FooVisitor<P> : TreeVisitor<FooSource, P>() {
 
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite
+
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.AfterEach
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.marker.Markers
+import org.openrewrite.text.PlainText
+import org.openrewrite.text.PlainTextVisitor
+
+class VisitorMetricsTest {
+    private val text = PlainText(randomId(), Markers.EMPTY, "hello")
+
+    @AfterEach
+    fun restoreDefault() {
+        VisitorMetrics.configure(Metrics.globalRegistry, 1)
+    }
+
+    @Test
+    fun timesTopLevelVisitsOncePerVisitorClass() {
+        val registry = SimpleMeterRegistry()
+        VisitorMetrics.configure(registry, 1)
+
+        val visitor = PlainTextVisitor<Int>()
+        visitor.visit(text, 0)
+        visitor.visit(text, 0)
+
+        val timers = registry.find("rewrite.visitor.visit").timers()
+        assertThat(timers).hasSize(1)
+        assertThat(timers.first().count()).isEqualTo(2)
+        assertThat(registry.find("rewrite.visitor.visit.cumulative").timer()!!.count()).isEqualTo(2)
+    }
+
+    @Test
+    fun disabled() {
+        val registry = SimpleMeterRegistry()
+        VisitorMetrics.configure(registry, 1)
+        VisitorMetrics.disable()
+
+        PlainTextVisitor<Int>().visit(text, 0)
+
+        assertThat(registry.meters).isEmpty()
+    }
+}
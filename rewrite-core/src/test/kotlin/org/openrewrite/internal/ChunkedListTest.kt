@@ -0,0 +1,86 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+
+class ChunkedListTest {
+    private val elements = (0 until 5000).map { "s$it" }
+
+    @Test
+    fun behavesLikeTheListItWasCopiedFrom() {
+        val chunked = ChunkedList.copyOf(elements)
+        assertThat(chunked).isEqualTo(elements)
+        assertThat(chunked[4321]).isEqualTo("s4321")
+        assertThat(chunked.chunkCount()).isGreaterThan(1)
+    }
+
+    @Test
+    fun editsMatchArrayList() {
+        var chunked = ChunkedList.copyOf(elements)
+        val expected = elements.toMutableList()
+
+        chunked = chunked.inserting(2500, "inserted")
+        expected.add(2500, "inserted")
+        chunked = chunked.appending("last")
+        expected.add("last")
+        chunked = chunked.removing(0)
+        expected.removeAt(0)
+        chunked = chunked.with(100, "replaced")
+        expected[100] = "replaced"
+        chunked = chunked.replaceRange(1000, 1200, listOf("a", "b"))
+        expected.subList(1000, 1200).clear()
+        expected.addAll(1000, listOf("a", "b"))
+
+        assertThat(chunked).isEqualTo(expected)
+        assertThat(chunked.size).isEqualTo(expected.size)
+    }
+
+    @Test
+    fun repeatedInsertionKeepsChunksBounded() {
+        var chunked = ChunkedList.empty<Int>()
+        for (i in 0 until 1000) {
+            chunked = chunked.inserting(chunked.size / 2, i)
+        }
+        assertThat(chunked).hasSize(1000)
+        assertThat(chunked.chunkCount()).isGreaterThanOrEqualTo(1000 / (2 * ChunkedList.CHUNK_SIZE))
+        assertThat(chunked.maxChunkLength()).isLessThanOrEqualTo(2 * ChunkedList.CHUNK_SIZE)
+    }
+
+    @Test
+    fun mapReturnsSameListWhenNothingChanges() {
+        val chunked = ChunkedList.copyOf(elements)
+        assertThat(ListUtils.map(chunked) { s -> s }).isSameAs(chunked)
+    }
+
+    @Test
+    fun mapDropsNullsAndStaysChunked() {
+        val chunked = ChunkedList.copyOf(elements)
+        val mapped = ListUtils.map(chunked) { s -> if (s.endsWith("7")) null else s }
+        assertThat(mapped).isInstanceOf(ChunkedList::class.java)
+        assertThat(mapped).isEqualTo(elements.filter { !it.endsWith("7") })
+    }
+
+    @Test
+    fun listUtilsPreserveChunking() {
+        val chunked = ChunkedList.copyOf(elements)
+        assertThat(ListUtils.concat(chunked, "x")).isInstanceOf(ChunkedList::class.java).endsWith("x")
+        assertThat(ListUtils.insertAll(chunked, 10, listOf("x"))[10]).isEqualTo("x")
+        assertThat(ListUtils.replaceRange(elements, 0, 1, emptyList())).isInstanceOf(ChunkedList::class.java)
+        assertThat(ListUtils.replaceRange(listOf("a", "b"), 0, 1, emptyList())).containsExactly("b")
+    }
+}
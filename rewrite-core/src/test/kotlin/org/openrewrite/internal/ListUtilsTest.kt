@@ -0,0 +1,45 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.concurrent.ForkJoinPool
+
+class ListUtilsTest {
+    @Test
+    fun parallelMapPreservesOrderAndDropsNulls() {
+        val pool = ForkJoinPool(4)
+        try {
+            val ls = (1..100).toList()
+            val mapped = ListUtils.map(ls, pool) { i -> if (i % 10 == 0) null else i * 2 }
+            assertThat(mapped).isEqualTo(ls.filter { it % 10 != 0 }.map { it * 2 })
+        } finally {
+            pool.shutdown()
+        }
+    }
+
+    @Test
+    fun parallelMapReturnsOriginalListWhenNothingChanges() {
+        val pool = ForkJoinPool(4)
+        try {
+            val ls = (1..100).toList()
+            assertThat(ListUtils.map(ls, pool) { i -> i }).isSameAs(ls)
+        } finally {
+            pool.shutdown()
+        }
+    }
+}
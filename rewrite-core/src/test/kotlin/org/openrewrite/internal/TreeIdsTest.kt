@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class TreeIdsTest {
+    @Test
+    fun idsAreVersion4Uuids() {
+        val id = TreeIds.next()
+        assertThat(id.version()).isEqualTo(4)
+        assertThat(id.variant()).isEqualTo(2)
+        assertThat(UUID.fromString(id.toString())).isEqualTo(id)
+    }
+
+    @Test
+    fun idsAreUniqueAcrossThreads() {
+        val ids = ConcurrentHashMap.newKeySet<UUID>()
+        val executor = Executors.newFixedThreadPool(8)
+        repeat(8) {
+            executor.execute {
+                repeat(10_000) { ids.add(TreeIds.next()) }
+            }
+        }
+        executor.shutdown()
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue
+        assertThat(ids).hasSize(80_000)
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.internal
+
+import org.assertj.core.api.Assertions.assertThat
+import org.assertj.core.api.Assertions.assertThatThrownBy
+import org.junit.jupiter.api.Test
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class WeakInternerTest {
+    @Test
+    fun internsOneValuePerKeyAcrossThreads() {
+        val interner = WeakInterner<String, Any>()
+        val interned = ConcurrentHashMap.newKeySet<Any>()
+
+        val executor = Executors.newFixedThreadPool(8)
+        repeat(8) {
+            executor.execute {
+                repeat(1000) { i ->
+                    interned.add(interner.intern("key${i % 10}") { variants ->
+                        if (variants.isEmpty()) Any() else variants[0]
+                    })
+                }
+            }
+        }
+        executor.shutdown()
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue
+
+        assertThat(interned).hasSize(10)
+        assertThat(interner.size()).isEqualTo(10)
+    }
+
+    @Test
+    fun variantsAreKeptSideBySide() {
+        val interner = WeakInterner<String, String>()
+        val a = interner.intern("k") { variants -> variants.firstOrNull { it == "a" } ?: String(charArrayOf('a')) }
+        val b = interner.intern("k") { variants -> variants.firstOrNull { it == "b" } ?: String(charArrayOf('b')) }
+
+        assertThat(interner.intern("k") { variants -> variants.first { it == "a" } }).isSameAs(a)
+        assertThat(interner.intern("k") { variants -> variants.first { it == "b" } }).isSameAs(b)
+    }
+
+    @Test
+    fun selectIsGivenAnImmutableListOfVariants() {
+        val interner = WeakInterner<String, Any>()
+        val value = interner.intern("k") { Any() }
+
+        interner.intern("k") { variants ->
+            assertThatThrownBy { (variants as MutableList<Any>).add(Any()) }
+                .isInstanceOf(UnsupportedOperationException::class.java)
+            assertThat(variants).containsExactly(value)
+            variants[0]
+        }
+    }
+}
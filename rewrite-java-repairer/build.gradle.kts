@@ -27,6 +27,11 @@ dependencies {
     implementation("org.ow2.asm:asm-util:latest.release")
 
     testImplementation("org.yaml:snakeyaml:latest.release")
+    testImplementation("org.openrewrite:rewrite-java-11:7.2.1") {
+        // test the trees of this build rather than those of the published release
+        exclude(group = "org.openrewrite", module = "rewrite-core")
+        exclude(group = "org.openrewrite", module = "rewrite-java")
+    }
 }
 
 tasks.withType<Javadoc> {
@@ -108,9 +108,11 @@ public class LockCheckRecipe extends Recipe {
             // System.out.println("method.getType():"+method.getType());
             System.out.println("3. results.size():"+results.size());//test
 
+            JavaTemplate.Edits<J.MethodDeclaration> edits = m.edits();
             for(int i=0;i<results.size();i++){
-                m = m.withTemplate(unLockTemplate, results.get(i).getCoordinates().before());
+                edits.withTemplate(unLockTemplate, results.get(i).getCoordinates().before());
             }
+            m = edits.apply();
             
             System.out.println(results.get(0).getCoordinates().before());
             // flag++;
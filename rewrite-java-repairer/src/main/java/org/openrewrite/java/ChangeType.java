@@ -17,6 +17,7 @@ package org.openrewrite.java;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.openrewrite.Applicability;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
 import org.openrewrite.Option;
@@ -61,6 +62,13 @@ public class ChangeType extends Recipe {
         return "Change a given type to another.";
     }
 
+    @Override
+    protected Applicability getApplicability() {
+        // every reference to the type that can be changed includes its simple name, either alone or qualified
+        String simpleName = oldFullyQualifiedTypeName.substring(oldFullyQualifiedTypeName.lastIndexOf('.') + 1);
+        return Applicability.tokens(simpleName.substring(simpleName.lastIndexOf('$') + 1));
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new ChangeTypeVisitor(newFullyQualifiedTypeName);
@@ -0,0 +1,147 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Incubating;
+import org.openrewrite.java.internal.template.TemplateSnippetCache;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Identically configured parsers shared by the templates that compile against them. Parsers aren't thread-safe, so
+ * each is lent to one thread at a time, and the most recently returned parser is lent first so that a thread
+ * compiling one template after another keeps reusing the same compiler and the classpath symbols it has loaded.
+ * Parsers are only created when every existing one is in use, so a pool holds at most as many parsers as there have
+ * been threads compiling templates at once.
+ * <p>
+ * Templates that aren't given a parser or pool of their own use the {@link #getDefault() default pool}. A pool whose
+ * lifetime is that of a particular run can be {@link #openForContext(ExecutionContext) associated with its execution
+ * context} before the run starts, for recipes to look up {@link #forContext(ExecutionContext) from the context}, and
+ * is closed along with it.
+ */
+@Incubating(since = "7.3.0")
+public class JavaParserPool {
+    private static final String CONTEXT_KEY = JavaParserPool.class.getName();
+
+    private static final JavaParserPool DEFAULT = new JavaParserPool(() -> JavaParser.fromJavaVersion().build());
+
+    private final Supplier<JavaParser> parserFactory;
+    private final Deque<JavaParser> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger created = new AtomicInteger();
+    private volatile boolean closed;
+
+    public JavaParserPool(Supplier<JavaParser> parserFactory) {
+        this.parserFactory = parserFactory;
+    }
+
+    /**
+     * @return The pool of parsers for the running Java version with the runtime classpath, which is shared by every
+     * template that isn't given a parser or pool of its own. Since it outlives any one run, whatever runs recipes
+     * should {@link #clear() clear} it once no run is using it, so that its parsers and their snippets are released.
+     */
+    public static JavaParserPool getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Associate a new pool of parsers for the running Java version with the runtime classpath with the execution
+     * context of a run. This is done before the run starts, because putting a message in the context of a running
+     * recipe makes the recipe run another cycle.
+     *
+     * @param ctx The execution context of a run that is about to start.
+     * @return The pool associated with this context, which is closed by {@link #close(ExecutionContext)}.
+     */
+    public static JavaParserPool openForContext(ExecutionContext ctx) {
+        JavaParserPool pool = new JavaParserPool(() -> JavaParser.fromJavaVersion().build());
+        ctx.putMessage(CONTEXT_KEY, pool);
+        return pool;
+    }
+
+    /**
+     * @param ctx The execution context of a run.
+     * @return The pool {@link #openForContext(ExecutionContext) associated} with this context, or the
+     * {@link #getDefault() default pool} if there isn't one.
+     */
+    public static JavaParserPool forContext(ExecutionContext ctx) {
+        JavaParserPool pool = ctx.getMessage(CONTEXT_KEY);
+        return pool == null ? DEFAULT : pool;
+    }
+
+    /**
+     * Close the pool associated with this context, if there is one, releasing its parsers.
+     */
+    public static void close(ExecutionContext ctx) {
+        JavaParserPool pool = ctx.pollMessage(CONTEXT_KEY);
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Borrow a parser for the duration of one unit of work. The parser is {@link JavaParser#reset() reset} before it
+     * is lent.
+     *
+     * @param work What to do with the parser, which must not escape this call.
+     * @param <T>  The result type of the work.
+     * @return The result of the work.
+     */
+    public <T> T withParser(Function<JavaParser, T> work) {
+        JavaParser parser = idle.pollFirst();
+        if (parser == null) {
+            parser = parserFactory.get();
+            created.incrementAndGet();
+        }
+        try {
+            parser.reset();
+            return work.apply(parser);
+        } finally {
+            if (!closed) {
+                idle.offerFirst(parser);
+            }
+        }
+    }
+
+    /**
+     * @return The number of parsers this pool has created.
+     */
+    public int getCreated() {
+        return created.get();
+    }
+
+    /**
+     * Release the pool's idle parsers and the template snippets they have compiled. The pool keeps lending parsers,
+     * and retains those that are lent at the time once they are returned.
+     */
+    public void clear() {
+        idle.clear();
+        TemplateSnippetCache.getDefault().invalidate(this);
+    }
+
+    /**
+     * Release the pool's idle parsers and the template snippets they have compiled, and any parsers that are lent at
+     * the time once they are returned. The pool can continue to be used afterwards, but every parser it lends will be
+     * a new one.
+     */
+    public void close() {
+        closed = true;
+        clear();
+    }
+}
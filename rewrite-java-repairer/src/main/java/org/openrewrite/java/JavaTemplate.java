@@ -19,47 +19,74 @@ import org.openrewrite.Cursor;
 import org.openrewrite.Incubating;
 import org.openrewrite.Tree;
 import org.openrewrite.internal.StringUtils;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.format.AutoFormatVisitor;
+import org.openrewrite.java.internal.template.ContextSignature;
 import org.openrewrite.java.internal.template.ExtractTrees;
 import org.openrewrite.java.internal.template.InsertAtCoordinates;
 import org.openrewrite.java.internal.template.JavaTemplatePrinter;
+import org.openrewrite.java.internal.template.TemplateHoles;
+import org.openrewrite.java.internal.template.TemplateSnippetCache;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JLeftPadded;
 import org.openrewrite.java.tree.JRightPadded;
 import org.openrewrite.java.tree.JavaCoordinates;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Build ASTs from the text of Java source code without knowing how to build the AST
  * elements that make up that text.
+ * <p>
+ * Parameters are either printed into the template where a parameter marker appears, or, where a typed hole such as
+ * {@code #{any(java.lang.String)}} appears, grafted into the generated code as the parameter's tree without printing
+ * and re-parsing it. Typed holes may only appear where an expression is expected. A template whose parameters are all
+ * typed holes generates the same source regardless of its parameters, so it only has to be compiled once per context.
  */
 @Incubating(since = "7.0.0")
 public class JavaTemplate {
+    private static final Pattern TYPED_HOLE = Pattern.compile("#\\{any\\(([^)]*)\\)}");
+
     private final Supplier<Cursor> parentScopeGetter;
+    @Nullable
     private final JavaParser parser;
+
+    private final JavaParserPool parserPool;
     private final String code;
     private final int parameterCount;
+    private final boolean hasTypedHoles;
     private final Set<String> imports;
     private final String parameterMarker;
     private final Consumer<String> onAfterVariableSubstitution;
     private final Consumer<String> onBeforeParseTemplate;
+    private final boolean minimalContext;
 
-    private JavaTemplate(Supplier<Cursor> parentScopeGetter, JavaParser parser, String code, Set<String> imports,
+    private JavaTemplate(Supplier<Cursor> parentScopeGetter, @Nullable JavaParser parser, JavaParserPool parserPool,
+                         String code, Set<String> imports,
                          String parameterMarker, Consumer<String> onAfterVariableSubstitution,
-                         Consumer<String> onBeforeParseTemplate) {
+                         Consumer<String> onBeforeParseTemplate, boolean minimalContext) {
         this.parentScopeGetter = parentScopeGetter;
         this.parser = parser;
+        this.parserPool = parserPool;
         this.code = code;
         this.imports = imports;
         this.parameterMarker = parameterMarker;
         this.onAfterVariableSubstitution = onAfterVariableSubstitution;
         this.onBeforeParseTemplate = onBeforeParseTemplate;
-        this.parameterCount = StringUtils.countOccurrences(code, parameterMarker);
+        this.minimalContext = minimalContext;
+
+        int typedHoles = 0;
+        Matcher typedHole = TYPED_HOLE.matcher(code);
+        while (typedHole.find()) {
+            typedHoles++;
+        }
+        this.parameterCount = StringUtils.countOccurrences(code, parameterMarker) + typedHoles;
+        this.hasTypedHoles = typedHoles > 0;
     }
 
     public static Builder builder(Supplier<Cursor> parentScope, String code) {
@@ -76,54 +103,131 @@ public class JavaTemplate {
      */
     public <J2 extends J> J2 withTemplate(Tree changing, JavaCoordinates coordinates, Object... parameters) {
         Cursor parentScope = parentScopeGetter.get();
+        Synthetic synthetic = new Synthetic(parentScope, changing, coordinates, parameters);
 
-        if (parameters.length != parameterCount) {
-            throw new IllegalArgumentException("This template requires " + parameterCount + " parameters.");
+        List<J> snippets = TemplateSnippetCache.getDefault().get(compilerKey(), synthetic.cacheKey);
+        if (snippets == null) {
+            String generatedSource = synthetic.generateSource();
+            J.CompilationUnit cu = compile(parser -> parser.parse(generatedSource).iterator().next());
+            snippets = extractSnippets(compilerKey(), synthetic.cacheKey, cu);
         }
 
-        //Substitute parameter markers with the string representation of each parameter.
-        String substitutedTemplate = substituteParameters(parameters);
-        onAfterVariableSubstitution.accept(substitutedTemplate);
+        //noinspection unchecked,ConstantConditions
+        return (J2) new InsertAtCoordinates(coordinates, formatSnippets(snippets, parentScope, parameters))
+                .visit(changing, 0, parentScope);
+    }
+
+    /**
+     * The synthetic compilation unit which the template's snippets are parsed out of at one insertion point. Its
+     * source is only printed when the snippets aren't already cached under the signature of the insertion point.
+     */
+    private class Synthetic {
+        private final String substitutedTemplate;
+        private final J.CompilationUnit cu;
+        private final Tree changing;
+        private final JavaCoordinates coordinates;
+        private final Cursor insertionScope;
+        private final String cacheKey;
+
+        private Synthetic(Cursor parentScope, Tree changing, JavaCoordinates coordinates, Object... parameters) {
+            if (parameters.length != parameterCount) {
+                throw new IllegalArgumentException("This template requires " + parameterCount + " parameters.");
+            }
 
-        J.CompilationUnit cu = parentScope.firstEnclosingOrThrow(J.CompilationUnit.class);
-        //The tree printer uses the cursor path from the compilation unit down to the tree element within the coordinates
-        //to generate the synthetic compilation unit. It is possible that the coordinates exist only in the "changed"
-        //tree. To accommodate this, the cursor path is extended from the parent into the changed/mutated tree until the
-        //coordinates are found.
-        Cursor insertionScope = JavaTemplatePrinter.findCoordinateCursor(parentScope, changing, coordinates);
+            //Substitute parameter markers with the string representation of each parameter.
+            this.substitutedTemplate = substituteParameters(parameters);
+            onAfterVariableSubstitution.accept(substitutedTemplate);
 
-        String generatedSource = new JavaTemplatePrinter(substitutedTemplate, changing, coordinates, imports)
-                .print(cu, insertionScope);
-        onBeforeParseTemplate.accept(generatedSource);
+            this.cu = parentScope.firstEnclosingOrThrow(J.CompilationUnit.class);
+            this.changing = changing;
+            this.coordinates = coordinates;
+            //The tree printer uses the cursor path from the compilation unit down to the tree element within the
+            //coordinates to generate the synthetic compilation unit. It is possible that the coordinates exist only in
+            //the "changed" tree. To accommodate this, the cursor path is extended from the parent into the
+            //changed/mutated tree until the coordinates are found.
+            this.insertionScope = JavaTemplatePrinter.findCoordinateCursor(parentScope, changing, coordinates);
 
-        parser.reset();
-        J.CompilationUnit synthetic = parser.parse(generatedSource).iterator().next();
+            StringBuilder key = new StringBuilder(ContextSignature.of(insertionScope, changing, coordinates));
+            key.append(minimalContext).append('\n');
+            for (String anImport : new TreeSet<>(imports)) {
+                key.append(anImport).append('\n');
+            }
+            this.cacheKey = key.append(substitutedTemplate).toString();
+        }
 
-        List<J> generatedElements = ExtractTrees.extract(synthetic);
-        for (int i = 0; i < generatedElements.size(); i++) {
-            J snippet = generatedElements.get(i);
-            generatedElements.set(i, new AutoFormatVisitor<Integer>().visit(snippet, 0, parentScope));
+        private String generateSource() {
+            String generatedSource = new JavaTemplatePrinter(substitutedTemplate, changing, coordinates, imports,
+                    minimalContext).print(cu, insertionScope);
+            onBeforeParseTemplate.accept(generatedSource);
+            return generatedSource;
         }
+    }
 
-        //noinspection unchecked,ConstantConditions
-        return (J2) new InsertAtCoordinates(coordinates).visit(changing, generatedElements, parentScope);
+    /**
+     * Extract the template's snippets from a synthetic compilation unit, remembering them so that an equivalent
+     * insertion point needn't be compiled again.
+     */
+    private static List<J> extractSnippets(Object compilerKey, String cacheKey, J.CompilationUnit synthetic) {
+        List<J> snippets = ExtractTrees.extract(synthetic);
+        TemplateSnippetCache.getDefault().put(compilerKey, cacheKey, snippets);
+        return snippets;
+    }
+
+    /**
+     * @return The parser this template was given, or otherwise its parser pool, whose parsers are interchangeable.
+     */
+    private Object compilerKey() {
+        return parser == null ? parserPool : parser;
+    }
+
+    private <T> T compile(Function<JavaParser, T> parse) {
+        if (parser == null) {
+            return parserPool.withParser(parse);
+        }
+        parser.reset();
+        return parse.apply(parser);
+    }
+
+    private List<J> formatSnippets(List<J> snippets, Cursor parentScope, Object[] parameters) {
+        List<J> formatted = new ArrayList<>(snippets.size());
+        for (J snippet : snippets) {
+            formatted.add(new AutoFormatVisitor<Integer>().visit(snippet, 0, parentScope));
+        }
+        return hasTypedHoles ? TemplateHoles.fill(formatted, parameters) : formatted;
     }
 
     /**
      * Replace the parameter markers in the template with the parameters passed into the generate method.
-     * Parameters that are Java Tree's will be correctly printed into the string. The parameters are not named and
-     * rely purely on ordinal position.
+     * Parameters that are Java Tree's will be correctly printed into the string, unless they fill a typed hole, in
+     * which case a placeholder of the hole's type is printed instead. The parameters are not named and rely purely on
+     * ordinal position.
      *
      * @param parameters A list of parameters
      * @return The final snippet to be generated.
      */
     private String substituteParameters(Object... parameters) {
-        String codeInstance = code;
-        for (Object parameter : parameters) {
-            codeInstance = StringUtils.replaceFirst(codeInstance, parameterMarker,
-                    substituteParameter(parameter));
+        if (parameters.length == 0) {
+            return code;
         }
-        return codeInstance;
+
+        StringBuilder codeInstance = new StringBuilder(code.length());
+        Matcher typedHole = TYPED_HOLE.matcher(code);
+        int pos = 0;
+        for (int i = 0; i < parameters.length; i++) {
+            int marker = code.indexOf(parameterMarker, pos);
+            if (typedHole.find(pos) && (marker < 0 || typedHole.start() < marker)) {
+                codeInstance.append(code, pos, typedHole.start());
+                String type = typedHole.group(1).trim();
+                codeInstance.append(TemplateHoles.graftable(parameters[i]) == null ?
+                        substituteParameter(parameters[i]) :
+                        TemplateHoles.placeholder(i, type.isEmpty() ? "java.lang.Object" : type));
+                pos = typedHole.end();
+            } else {
+                codeInstance.append(code, pos, marker).append(substituteParameter(parameters[i]));
+                pos = marker + parameterMarker.length();
+            }
+        }
+        return codeInstance.append(code, pos, code.length()).toString();
     }
 
     private String substituteParameter(Object parameter) {
@@ -137,12 +241,112 @@ public class JavaTemplate {
         return parameter.toString();
     }
 
+    /**
+     * Template edits queued against one tree, which are applied together. Every template that shares a parser (or
+     * parser pool) and hasn't been compiled in an equivalent context before is compiled with the same parser, which is
+     * only borrowed once, and the generated elements are inserted in a single traversal of the tree, so the ancestors
+     * of the edited elements are only rebuilt once regardless of how many edits there are.
+     * <p>
+     * All coordinates refer to the tree the edits were created for. Several insertions may target the same tree
+     * element and location, and are then inserted in the order they were queued. Any other combination of edits
+     * that target the same element is rejected.
+     *
+     * @param <J2> The type of the tree being edited.
+     */
+    @Incubating(since = "7.3.0")
+    public static class Edits<J2 extends J> {
+        private final J2 changing;
+        private final List<Edit> edits = new ArrayList<>();
+
+        public Edits(J2 changing) {
+            this.changing = changing;
+        }
+
+        public Edits<J2> withTemplate(JavaTemplate template, JavaCoordinates coordinates, Object... parameters) {
+            edits.add(new Edit(template, coordinates, parameters));
+            return this;
+        }
+
+        /**
+         * @return A modified form of the tree with every queued edit applied, or the tree itself if none were queued.
+         */
+        public J2 apply() {
+            if (edits.isEmpty()) {
+                return changing;
+            }
+
+            Cursor[] parentScopes = new Cursor[edits.size()];
+            Synthetic[] synthetics = new Synthetic[edits.size()];
+            List<List<J>> snippets = new ArrayList<>(edits.size());
+            Map<Object, List<Integer>> editsByCompiler = new IdentityHashMap<>();
+            for (int i = 0; i < edits.size(); i++) {
+                Edit edit = edits.get(i);
+                parentScopes[i] = edit.template.parentScopeGetter.get();
+                synthetics[i] = edit.template.new Synthetic(parentScopes[i], changing, edit.coordinates,
+                        edit.parameters);
+                List<J> cached = TemplateSnippetCache.getDefault().get(edit.template.compilerKey(),
+                        synthetics[i].cacheKey);
+                snippets.add(cached);
+                if (cached == null) {
+                    editsByCompiler.computeIfAbsent(edit.template.compilerKey(), p -> new ArrayList<>()).add(i);
+                }
+            }
+
+            for (List<Integer> indices : editsByCompiler.values()) {
+                JavaTemplate template = edits.get(indices.get(0)).template;
+                List<String> generatedSources = new ArrayList<>(indices.size());
+                for (int edit : indices) {
+                    generatedSources.add(synthetics[edit].generateSource());
+                }
+                List<J.CompilationUnit> cus = template.compile(parser -> {
+                    // every synthetic source declares the classes that enclose its edit, so compiling them together
+                    // would make all but the first a duplicate class that is left without types
+                    List<J.CompilationUnit> compiled = new ArrayList<>(indices.size());
+                    for (String generatedSource : generatedSources) {
+                        parser.reset();
+                        compiled.add(parser.parse(generatedSource).iterator().next());
+                    }
+                    return compiled;
+                });
+                for (int i = 0; i < indices.size(); i++) {
+                    int edit = indices.get(i);
+                    snippets.set(edit, extractSnippets(template.compilerKey(), synthetics[edit].cacheKey, cus.get(i)));
+                }
+            }
+
+            List<InsertAtCoordinates.Insertion> insertions = new ArrayList<>(edits.size());
+            for (int i = 0; i < edits.size(); i++) {
+                Edit edit = edits.get(i);
+                insertions.add(new InsertAtCoordinates.Insertion(edit.coordinates,
+                        edit.template.formatSnippets(snippets.get(i), parentScopes[i], edit.parameters)));
+            }
+
+            //noinspection unchecked,ConstantConditions
+            return (J2) new InsertAtCoordinates(insertions).visit(changing, 0, parentScopes[0]);
+        }
+
+        private static class Edit {
+            private final JavaTemplate template;
+            private final JavaCoordinates coordinates;
+            private final Object[] parameters;
+
+            private Edit(JavaTemplate template, JavaCoordinates coordinates, Object[] parameters) {
+                this.template = template;
+                this.coordinates = coordinates;
+                this.parameters = parameters;
+            }
+        }
+    }
+
     public static class Builder {
         private final Supplier<Cursor> parentScope;
         private final String code;
         private final Set<String> imports = new HashSet<>();
 
-        private JavaParser javaParser = JavaParser.fromJavaVersion().build();
+        @Nullable
+        private JavaParser javaParser;
+
+        private JavaParserPool parserPool = JavaParserPool.getDefault();
 
         private String parameterMarker = "#{}";
 
@@ -151,6 +355,8 @@ public class JavaTemplate {
         private Consumer<String> onBeforeParseTemplate = s -> {
         };
 
+        private boolean minimalContext;
+
         Builder(Supplier<Cursor> parentScope, String code) {
             this.parentScope = parentScope;
             this.code = code.trim();
@@ -200,11 +406,24 @@ public class JavaTemplate {
             return this;
         }
 
+        /**
+         * Compile the template with this parser rather than one from a {@link #parserPool(JavaParserPool) pool}.
+         */
         public Builder javaParser(JavaParser javaParser) {
             this.javaParser = javaParser;
             return this;
         }
 
+        /**
+         * Borrow a parser from this pool whenever the template needs compiling. If not specified, the template uses
+         * the {@link JavaParserPool#getDefault() default pool}, so building a template creates no parser of its own.
+         */
+        @Incubating(since = "7.3.0")
+        public Builder parserPool(JavaParserPool parserPool) {
+            this.parserPool = parserPool;
+            return this;
+        }
+
         /**
          * Define an alternate marker to denote where a parameter should be inserted into the template. If not specified, the
          * default format for parameter marker is "#{}"
@@ -219,14 +438,32 @@ public class JavaTemplate {
             return this;
         }
 
+        /**
+         * Templates that have been compiled before in the same context are taken from a cache, so this is only called
+         * when a template's synthetic source is generated to be compiled, and not every time the template is applied.
+         */
         public Builder doBeforeParseTemplate(Consumer<String> beforeParseTemplate) {
             this.onBeforeParseTemplate = beforeParseTemplate;
             return this;
         }
 
+        /**
+         * Compile the template against a stub of only those declarations that are reachable from the insertion scope
+         * without qualification: the members of enclosing classes and of the classes declared within them, with empty
+         * method bodies, and the local variables and classes declared before the insertion point. Other top level
+         * classes in the same source file are declared without their members. This keeps the cost of applying a
+         * template independent of the size of the source file, so long as the template doesn't refer to members of
+         * other top level classes declared in the same source file.
+         */
+        @Incubating(since = "7.3.0")
+        public Builder minimalContext(boolean minimalContext) {
+            this.minimalContext = minimalContext;
+            return this;
+        }
+
         public JavaTemplate build() {
-            return new JavaTemplate(parentScope, javaParser, code, imports, parameterMarker,
-                    onAfterVariableSubstitution, onBeforeParseTemplate);
+            return new JavaTemplate(parentScope, javaParser, parserPool, code, imports, parameterMarker,
+                    onAfterVariableSubstitution, onBeforeParseTemplate, minimalContext);
         }
     }
 }
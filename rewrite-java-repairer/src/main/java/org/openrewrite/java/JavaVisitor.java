@@ -15,6 +15,7 @@
  */
 package org.openrewrite.java;
 
+import org.openrewrite.Applicability;
 import org.openrewrite.Cursor;
 import org.openrewrite.Incubating;
 import org.openrewrite.Tree;
@@ -22,6 +23,7 @@ import org.openrewrite.TreeVisitor;
 import org.openrewrite.internal.ListUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.format.AutoFormatVisitor;
+import org.openrewrite.java.internal.JavaSummarizer;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.marker.Marker;
 import org.openrewrite.marker.Markers;
@@ -34,11 +36,48 @@ import java.util.Objects;
 
 public class JavaVisitor<P> extends TreeVisitor<J, P> {
 
+    @Nullable
+    private Applicability interest;
+
+    private boolean interestDetermined;
+
     @Override
     public String getLanguage() {
         return "java";
     }
 
+    /**
+     * Declares what a compilation unit or top-level class declaration must contain for this visitor to change anything
+     * within it. Those that can't satisfy the interest according to their {@link JavaSummary summary} are skipped
+     * without being visited. Conditions on file extensions are ignored.
+     * <p>
+     * Like a recipe's applicability, the interest must be conservative. It is only determined once per visitor.
+     *
+     * @return The visitor's interest, or {@code null} to visit every subtree.
+     */
+    @Incubating(since = "7.3.0")
+    @Nullable
+    protected Applicability getInterest() {
+        return null;
+    }
+
+    @Override
+    protected TreeVisitor<J, P> newTraversal() {
+        return new JavaVisitor<>();
+    }
+
+    @Override
+    protected boolean canSkip(J tree, P p) {
+        if (!JavaSummarizer.isSummarized(tree, getCursor().getParent())) {
+            return false;
+        }
+        if (!interestDetermined) {
+            interest = getInterest();
+            interestDetermined = true;
+        }
+        return interest != null && !interest.test(JavaSummarizer.summarize(tree));
+    }
+
     @Incubating(since = "7.0.0")
     public JavaTemplate.Builder template(String code) {
         return JavaTemplate.builder(this::getCursor, code);
@@ -15,12 +15,14 @@
  */
 package org.openrewrite.java;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.TerminalNode;
+import org.openrewrite.internal.WeakIdentityCache;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.internal.grammar.AspectJLexer;
 import org.openrewrite.java.internal.grammar.RefactorMethodSignatureParser;
@@ -32,7 +34,9 @@ import java.util.List;
 import java.util.Objects;
 import java.util.regex.Pattern;
 
+import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 
 /**
  * This class accepts an AspectJ pointcut expression and is used to identify methods that match the expression. The
@@ -63,6 +67,34 @@ public class MethodMatcher {
     private Pattern methodNamePattern;
     private Pattern argumentPattern;
 
+    /*
+     * The patterns above are compiled into the matchers below, which compare literal names without a regex and match
+     * each parameter on its own rather than joining the parameter types into one string.
+     */
+    @Getter(AccessLevel.NONE)
+    private NamePattern targetTypeName;
+
+    @Getter(AccessLevel.NONE)
+    private NamePattern methodName;
+
+    /**
+     * One pattern per formal parameter, excluding "..".
+     */
+    @Getter(AccessLevel.NONE)
+    private NamePattern[] parameters;
+
+    /**
+     * The position of ".." among the formal parameters, or -1 when there is none.
+     */
+    @Getter(AccessLevel.NONE)
+    private int dotDot = -1;
+
+    /**
+     * Verdicts of {@link #matchesTargetType(JavaType.FullyQualified)}, which walks the supertype hierarchy.
+     */
+    @Getter(AccessLevel.NONE)
+    private final WeakIdentityCache<JavaType.FullyQualified, Boolean> targetTypeMatches = new WeakIdentityCache<>();
+
     public MethodMatcher(String signature) {
         RefactorMethodSignatureParser parser = new RefactorMethodSignatureParser(new CommonTokenStream(new AspectJLexer(
                 CharStreams.fromString(signature))));
@@ -74,8 +106,21 @@ public class MethodMatcher {
                 methodNamePattern = Pattern.compile(ctx.simpleNamePattern().children.stream()
                         .map(c -> AspectjUtils.aspectjNameToPattern(c.toString()))
                         .collect(joining("")));
-                argumentPattern = Pattern.compile(new FormalParameterVisitor().visitFormalParametersPattern(
+                FormalParameterVisitor formalParameters = new FormalParameterVisitor();
+                argumentPattern = Pattern.compile(formalParameters.visitFormalParametersPattern(
                         ctx.formalParametersPattern()));
+
+                targetTypeName = new NamePattern(targetTypePattern);
+                methodName = new NamePattern(methodNamePattern);
+                List<NamePattern> parameterPatterns = new ArrayList<>();
+                for (String parameterRegex : formalParameters.getParameterRegexes()) {
+                    if (parameterRegex == null) {
+                        dotDot = parameterPatterns.size();
+                    } else {
+                        parameterPatterns.add(new NamePattern(Pattern.compile(parameterRegex)));
+                    }
+                }
+                parameters = parameterPatterns.toArray(new NamePattern[0]);
                 return null;
             }
         }.visit(parser.methodPattern());
@@ -88,12 +133,9 @@ public class MethodMatcher {
 
         JavaType.Method methodType = (JavaType.Method) type;
 
-        return matchesTargetType(methodType.getDeclaringType()) &&
-                methodNamePattern.matcher(methodType.getName()).matches() &&
-                argumentPattern.matcher(methodType.getGenericSignature().getParamTypes().stream()
-                        .map(MethodMatcher::typePattern)
-                        .filter(Objects::nonNull)
-                        .collect(joining(","))).matches();
+        return methodName.matches(methodType.getName()) &&
+                matchesTargetType(methodType.getDeclaringType()) &&
+                matchesParameterTypes(methodType.getGenericSignature().getParamTypes());
     }
 
     public boolean matches(J.MethodDeclaration method, J.ClassDeclaration enclosing) {
@@ -101,9 +143,9 @@ public class MethodMatcher {
             return false;
         }
 
-        return matchesTargetType(TypeUtils.asClass(enclosing.getType())) &&
-                methodNamePattern.matcher(method.getSimpleName()).matches() &&
-                argumentPattern.matcher(method.getParameters().stream()
+        return methodName.matches(method.getSimpleName()) &&
+                matchesTargetType(TypeUtils.asClass(enclosing.getType())) &&
+                matchesParameterTypes(method.getParameters().stream()
                         .map(v -> {
                             if (v instanceof J.VariableDeclarations) {
                                 J.VariableDeclarations vd = (J.VariableDeclarations) v;
@@ -116,10 +158,7 @@ public class MethodMatcher {
                                 return null;
                             }
                         })
-                        .filter(Objects::nonNull)
-                        .map(MethodMatcher::typePattern)
-                        .filter(Objects::nonNull)
-                        .collect(joining(","))).matches();
+                        .collect(toList()));
     }
 
     public boolean matches(J.MethodInvocation method) {
@@ -132,12 +171,9 @@ public class MethodMatcher {
             return false;
         }
 
-        return matchesTargetType(method.getType().getDeclaringType()) &&
-                methodNamePattern.matcher(method.getSimpleName()).matches() &&
-                argumentPattern.matcher(method.getType().getResolvedSignature().getParamTypes().stream()
-                        .map(MethodMatcher::typePattern)
-                        .filter(Objects::nonNull)
-                        .collect(joining(","))).matches();
+        return methodName.matches(method.getSimpleName()) &&
+                matchesTargetType(method.getType().getDeclaringType()) &&
+                matchesParameterTypes(method.getType().getResolvedSignature().getParamTypes());
     }
 
     public boolean matches(J.NewClass constructor) {
@@ -145,28 +181,66 @@ public class MethodMatcher {
             return false;
         }
         JContainer<Expression> args = constructor.getArguments();
-        String signaturePattern = "";
+        List<JavaType> argumentTypes = emptyList();
         if (args != null) {
-            signaturePattern = args.getElements().stream()
-                    .map(Expression::getType)
-                    .filter(Objects::nonNull)
-                    .map(MethodMatcher::typePattern)
-                    .filter(Objects::nonNull)
-                    .collect(joining(","));
+            argumentTypes = new ArrayList<>(args.getElements().size());
+            for (Expression arg : args.getElements()) {
+                argumentTypes.add(arg.getType());
+            }
         }
 
         JavaType.Class type = TypeUtils.asClass(constructor.getType());
         assert type != null;
-        return matchesTargetType(type) &&
-                methodNamePattern.matcher(type.getClassName()).matches() &&
-                argumentPattern.matcher(signaturePattern).matches();
+        return methodName.matches(type.getClassName()) &&
+                matchesTargetType(type) &&
+                matchesParameterTypes(argumentTypes);
     }
 
     boolean matchesTargetType(@Nullable JavaType.FullyQualified type) {
-        JavaType.Class asClass = TypeUtils.asClass(type);
-        return type != null && (targetTypePattern.matcher(type.getFullyQualifiedName()).matches() ||
-                type != JavaType.Class.OBJECT &&
-                        (asClass == null || matchesTargetType(asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype())));
+        if (type == null) {
+            return false;
+        }
+        Boolean matches = targetTypeMatches.get(type);
+        if (matches == null) {
+            JavaType.Class asClass = TypeUtils.asClass(type);
+            matches = targetTypeName.matches(type.getFullyQualifiedName()) ||
+                    type != JavaType.Class.OBJECT &&
+                            (asClass == null || matchesTargetType(asClass.getSupertype() == null ? JavaType.Class.OBJECT : asClass.getSupertype()));
+            targetTypeMatches.put(type, matches);
+        }
+        return matches;
+    }
+
+    /**
+     * Match parameter types against the formal parameters. Types that {@link #typePattern(JavaType)} has no name for,
+     * like type variables, are skipped.
+     */
+    private boolean matchesParameterTypes(List<? extends JavaType> types) {
+        String[] names = new String[types.size()];
+        int n = 0;
+        for (JavaType type : types) {
+            String name = type == null ? null : typePattern(type);
+            if (name != null) {
+                names[n++] = name;
+            }
+        }
+
+        if (dotDot < 0 ? n != parameters.length : n < parameters.length) {
+            return false;
+        }
+        int leading = dotDot < 0 ? parameters.length : dotDot;
+        for (int i = 0; i < leading; i++) {
+            if (!parameters[i].matches(names[i])) {
+                return false;
+            }
+        }
+        // the parameters after ".." are matched against the last types
+        for (int i = leading; i < parameters.length; i++) {
+            if (!parameters[i].matches(names[n - parameters.length + i])) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Nullable
@@ -184,6 +258,41 @@ public class MethodMatcher {
         return null;
     }
 
+    /**
+     * A name pattern that is compared as a plain string when it contains no wildcards.
+     */
+    private static class NamePattern {
+        @Nullable
+        private final String literal;
+
+        private final Pattern pattern;
+
+        NamePattern(Pattern pattern) {
+            this.pattern = pattern;
+            this.literal = literal(pattern.pattern());
+        }
+
+        boolean matches(String name) {
+            return literal != null ? literal.equals(name) : pattern.matcher(name).matches();
+        }
+
+        @Nullable
+        private static String literal(String regex) {
+            StringBuilder literal = new StringBuilder(regex.length());
+            for (int i = 0; i < regex.length(); i++) {
+                char c = regex.charAt(i);
+                if (c == '\\' && i + 1 < regex.length() && ".[]".indexOf(regex.charAt(i + 1)) >= 0) {
+                    literal.append(regex.charAt(++i));
+                } else if (Character.isJavaIdentifierPart(c) || c == '<' || c == '>') {
+                    literal.append(c);
+                } else {
+                    return null;
+                }
+            }
+            return literal.toString();
+        }
+    }
+
     public static String methodPattern(J.MethodDeclaration method) {
         assert method.getType() != null;
 
@@ -237,6 +346,12 @@ class TypeVisitor extends RefactorMethodSignatureParserBaseVisitor<String> {
 class FormalParameterVisitor extends RefactorMethodSignatureParserBaseVisitor<String> {
     private final List<Argument> arguments = new ArrayList<>();
 
+    /**
+     * The pattern of each formal parameter on its own, or null for "..", once the formal parameters have been visited.
+     */
+    @Getter
+    private final List<String> parameterRegexes = new ArrayList<>();
+
     @Override
     public String visitTerminal(TerminalNode node) {
         if ("...".equals(node.getText())) {
@@ -264,6 +379,7 @@ class FormalParameterVisitor extends RefactorMethodSignatureParserBaseVisitor<St
         List<String> argumentPatterns = new ArrayList<>();
         for (int i = 0; i < arguments.size(); i++) {
             Argument argument = arguments.get(i);
+            parameterRegexes.add(argument == Argument.DOT_DOT ? null : argument.getRegex().replace("...", "\\[\\]"));
 
             // Note: the AspectJ grammar doesn't allow for multiple ..'s in one formal parameter pattern
             if (argument == Argument.DOT_DOT) {
@@ -39,8 +39,9 @@ public class EmptyBlockVisitor<P> extends JavaIsoVisitor<P> {
     EmptyBlockStyle emptyBlockStyle;
     JavaTemplate throwException = template("throw new #{}(#{});")
             .imports("java.io.UncheckedIOException")
+            .minimalContext(true)
             .build();
-    JavaTemplate continueStatement = template("continue;").build();
+    JavaTemplate continueStatement = template("continue;").minimalContext(true).build();
 
     @Override
     public J.WhileLoop visitWhileLoop(J.WhileLoop whileLoop, P p) {
@@ -32,7 +32,9 @@ import java.util.stream.Collectors;
 
 @Incubating(since = "7.0.0")
 public class SimplifyBooleanReturnVisitor<P> extends JavaVisitor<P> {
-    private final JavaTemplate notIfConditionReturn = template("return !(#{});").build();
+    private final JavaTemplate notIfConditionReturn = template("return !(#{any(boolean)});")
+            .minimalContext(true)
+            .build();
 
     @Override
     public J visitIf(J.If iff, P p) {
@@ -18,7 +18,7 @@ package org.openrewrite.java.cleanup;
 import org.openrewrite.*;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
-import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.JavaParserPool;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.search.HasTypes;
 import org.openrewrite.java.tree.*;
@@ -35,8 +35,6 @@ public class XmlParserXXEVulnerabilityFix extends Recipe {
     private static final String XML_PARSER_INITIALIZATION_METHOD = "xml-parser-initialization-method";
     private static final String XML_FACTORY_VARIABLE_NAME = "xml-factory-variable-name";
 
-    private static final ThreadLocal<JavaParser> JAVA_PARSER_THREAD_LOCAL = ThreadLocal.withInitial(() -> JavaParser.fromJavaVersion().build());
-
     @Override
     public String getDisplayName() {
         return "XML Parser XXE Vulnerability Fix.";
@@ -52,6 +50,12 @@ public class XmlParserXXEVulnerabilityFix extends Recipe {
         return new HasTypes(Collections.singletonList(XML_FACTORY_FQN)).getVisitor();
     }
 
+    @Override
+    protected Applicability getApplicability() {
+        // the visitor only acts on invocations of factory methods declared on XMLInputFactory
+        return Applicability.types(XML_FACTORY_FQN);
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new JavaIsoVisitor<ExecutionContext>() {
@@ -145,7 +149,10 @@ public class XmlParserXXEVulnerabilityFix extends Recipe {
                     propertyTemplate.insert(0, "{\n").append("}");
                 }
                 JavaCoordinates insertCoordinates = beforeStatement != null ? beforeStatement.getCoordinates().before() : bl.getCoordinates().lastStatement();
-                bl = bl.withTemplate(template(propertyTemplate.toString()).javaParser(JAVA_PARSER_THREAD_LOCAL.get()).build(), insertCoordinates);
+                bl = bl.withTemplate(template(propertyTemplate.toString())
+                        .parserPool(JavaParserPool.forContext(executionContext))
+                        .minimalContext(true)
+                        .build(), insertCoordinates);
             }
             return bl;
         }
@@ -17,34 +17,70 @@ package org.openrewrite.java.format;
 
 import org.openrewrite.Cursor;
 import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.style.*;
 import org.openrewrite.java.tree.J;
 
+import java.util.Arrays;
 import java.util.Optional;
 
+/**
+ * Formats a tree according to the styles of the compilation unit it belongs to.
+ * <p>
+ * When formatting part of a compilation unit, the whitespace is first normalized, with the rules that move
+ * whitespace to the outermost element, insert the minimum spacing required between tokens and remove trailing
+ * whitespace applied in a single traversal. Each of these rules only changes the element it is visiting, none of them
+ * looks at whitespace the others change on that element's children other than to tell whether it is empty, and
+ * trailing whitespace trimmed before whitespace is moved to an outer element leaves the same whitespace as trimming
+ * it afterwards, so fusing them gives the same result as applying them one after the other.
+ * <p>
+ * The style specific rules are each applied in a traversal of their own, because each depends on the whole tree as
+ * left by the one before: blank lines are counted relative to statements the normalizing rules may have replaced,
+ * spaces within empty braces are decided before wrapping adds a newline there, and indentation is computed top down
+ * from the newlines that the rules before it insert bottom up.
+ */
 public class AutoFormatVisitor<P> extends JavaIsoVisitor<P> {
     @Nullable
     private final Tree stopAfter;
 
+    private final boolean fuse;
+
     public AutoFormatVisitor() {
         this(null);
     }
 
     public AutoFormatVisitor(@Nullable Tree stopAfter) {
+        this(stopAfter, true);
+    }
+
+    /**
+     * @param stopAfter The last tree to format.
+     * @param fuse      Whether to normalize whitespace in a single traversal. Normalizing it one rule at a time gives
+     *                  the same result, and serves as a reference for the fused traversal.
+     */
+    AutoFormatVisitor(@Nullable Tree stopAfter, boolean fuse) {
         this.stopAfter = stopAfter;
+        this.fuse = fuse;
     }
 
     @Override
     public J visit(@Nullable Tree tree, P p, Cursor cursor) {
         J.CompilationUnit cu = cursor.firstEnclosingOrThrow(J.CompilationUnit.class);
 
-        J t = new NormalizeFormatVisitor<>().visit(tree, p, cursor);
-
-        t = new MinimumViableSpacingVisitor<>().visit(t, p, cursor);
-
-        t = new RemoveTrailingWhitespaceVisitor<>().visit(t, p, cursor);
+        J t;
+        if (fuse) {
+            t = TreeVisitor.visitFused(Arrays.<TreeVisitor<J, P>>asList(
+                    new NormalizeFormatVisitor<>(),
+                    new MinimumViableSpacingVisitor<>(),
+                    new RemoveTrailingWhitespaceVisitor<>()
+            ), (J) tree, p, cursor);
+        } else {
+            t = new NormalizeFormatVisitor<>().visit(tree, p, cursor);
+            t = new MinimumViableSpacingVisitor<>().visit(t, p, cursor);
+            t = new RemoveTrailingWhitespaceVisitor<>().visit(t, p, cursor);
+        }
 
         t = new BlankLinesVisitor<>(Optional.ofNullable(cu.getStyle(BlankLinesStyle.class))
                 .orElse(IntelliJ.blankLines()), stopAfter)
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal;
+
+import org.openrewrite.Fingerprint;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.FingerprintPrinter;
+import org.openrewrite.internal.WeakIdentityCache;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaPrinter;
+import org.openrewrite.java.tree.J;
+
+/**
+ * Fingerprints Java trees, reusing the fingerprints of blocks, method and class declarations that have been
+ * fingerprinted before rather than printing them again. Trees are immutable, and recipes share the subtrees they don't
+ * modify between the before and after versions of a tree, so fingerprinting a modified tree only prints the
+ * declarations that contain a modification.
+ */
+public class JavaFingerprinter extends JavaPrinter<Integer> {
+    private static final WeakIdentityCache<Tree, Fingerprint> FINGERPRINTS = new WeakIdentityCache<>();
+
+    private final FingerprintPrinter<Integer> fingerprintPrinter;
+
+    private JavaFingerprinter(FingerprintPrinter<Integer> fingerprintPrinter) {
+        super(fingerprintPrinter);
+        this.fingerprintPrinter = fingerprintPrinter;
+    }
+
+    public static Fingerprint fingerprint(J j) {
+        Fingerprint fingerprint = FINGERPRINTS.get(j);
+        if (fingerprint == null) {
+            JavaFingerprinter fingerprinter = new JavaFingerprinter(new FingerprintPrinter<>(FINGERPRINTS,
+                    JavaFingerprinter::isCacheable));
+            fingerprinter.print(j, 0);
+            fingerprint = fingerprinter.fingerprintPrinter.getFingerprint(fingerprinter.getPrinter());
+        }
+        return fingerprint;
+    }
+
+    private static boolean isCacheable(Tree tree) {
+        return tree instanceof J.CompilationUnit ||
+                tree instanceof J.ClassDeclaration ||
+                tree instanceof J.MethodDeclaration ||
+                tree instanceof J.Block;
+    }
+
+    @Override
+    @Nullable
+    public J visit(@Nullable Tree tree, Integer p) {
+        if (tree != null && isCacheable(tree)) {
+            Fingerprint fingerprint = FINGERPRINTS.get(tree);
+            if (fingerprint != null) {
+                fingerprintPrinter.append(fingerprint, getPrinter());
+                return (J) tree;
+            }
+        }
+        return super.visit(tree, p);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.WeakIdentityCache;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Summarizes compilation units and class declarations in a single pass, recording the kinds of node they contain, the
+ * types they reference, the methods they invoke or reference, and the identifiers they contain.
+ * <p>
+ * Summarizing a compilation unit also summarizes its top-level class declarations, but not the classes nested in
+ * those, since every level of nesting that is summarized holds another copy of everything within it. Summaries are
+ * cached for as long as the tree they describe is reachable, and the summaries of top-level classes that are already
+ * known are merged rather than visited again, so summarizing a modified compilation unit only visits the top-level
+ * classes that contain a modification.
+ */
+public class JavaSummarizer extends JavaIsoVisitor<Integer> {
+    private static final WeakIdentityCache<J, JavaSummary> SUMMARIES = new WeakIdentityCache<>();
+
+    private final Deque<Accumulator> accumulators = new ArrayDeque<>();
+
+    @Nullable
+    private JavaSummary lastSummary;
+
+    private JavaSummarizer() {
+    }
+
+    /**
+     * @param tree   A tree about to be visited.
+     * @param parent The cursor of the tree's parent.
+     * @return Whether the tree is summarized when its compilation unit is, which is the case for compilation units and
+     * their top-level class declarations.
+     */
+    public static boolean isSummarized(Tree tree, @Nullable Cursor parent) {
+        if (tree instanceof J.CompilationUnit) {
+            return true;
+        }
+        if (!(tree instanceof J.ClassDeclaration)) {
+            return false;
+        }
+        J enclosing = parent == null ? null : parent.firstEnclosing(J.class);
+        return enclosing == null || enclosing instanceof J.CompilationUnit;
+    }
+
+    /**
+     * Nested class declarations can also be summarized on request, though their summaries aren't produced as part of
+     * summarizing the compilation unit they belong to.
+     *
+     * @param j A compilation unit or class declaration.
+     * @return The summary of the tree.
+     */
+    public static JavaSummary summarize(J j) {
+        if (!(j instanceof J.CompilationUnit || j instanceof J.ClassDeclaration)) {
+            throw new IllegalArgumentException("Only compilation units and class declarations are summarized");
+        }
+        JavaSummary summary = SUMMARIES.get(j);
+        if (summary == null) {
+            JavaSummarizer summarizer = new JavaSummarizer();
+            summarizer.visit(j, 0);
+            summary = summarizer.lastSummary;
+            assert summary != null;
+        }
+        return summary;
+    }
+
+    @Override
+    @Nullable
+    public J visit(@Nullable Tree tree, Integer p) {
+        if (tree == null || !(accumulators.isEmpty() || isSummarized(tree, getCursor()))) {
+            return super.visit(tree, p);
+        }
+
+        JavaSummary summary = SUMMARIES.get((J) tree);
+        if (summary == null) {
+            accumulators.push(new Accumulator());
+            super.visit(tree, p);
+            Accumulator acc = accumulators.pop();
+            summary = new JavaSummary(acc.kinds, acc.types, acc.methodNames, acc.tokens);
+            SUMMARIES.put((J) tree, summary);
+        }
+
+        Accumulator parent = accumulators.peek();
+        if (parent != null) {
+            parent.kinds.addAll(summary.getKinds());
+            parent.types.addAll(summary.getTypes());
+            parent.methodNames.addAll(summary.getMethodNames());
+            parent.tokens.addAll(summary.getTokens());
+        }
+        lastSummary = summary;
+        return (J) tree;
+    }
+
+    @Override
+    public J preVisit(J tree, Integer p) {
+        Accumulator acc = accumulators.element();
+        acc.kinds.add(tree.getClass());
+        if (tree instanceof Expression) {
+            acc.addType(((Expression) tree).getType());
+        } else if (tree instanceof NameTree) {
+            acc.addType(((NameTree) tree).getType());
+        } else if (tree instanceof J.VariableDeclarations.NamedVariable) {
+            acc.addType(((J.VariableDeclarations.NamedVariable) tree).getType());
+        } else if (tree instanceof J.MethodDeclaration) {
+            acc.addType(((J.MethodDeclaration) tree).getType());
+        } else if (tree instanceof J.ClassDeclaration) {
+            acc.addType(((J.ClassDeclaration) tree).getType());
+        }
+        return tree;
+    }
+
+    @Override
+    public J.Identifier visitIdentifier(J.Identifier ident, Integer p) {
+        accumulators.element().tokens.add(ident.getSimpleName());
+        return super.visitIdentifier(ident, p);
+    }
+
+    @Override
+    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Integer p) {
+        accumulators.element().methodNames.add(method.getSimpleName());
+        return super.visitMethodInvocation(method, p);
+    }
+
+    @Override
+    public J.MemberReference visitMemberReference(J.MemberReference memberRef, Integer p) {
+        Accumulator acc = accumulators.element();
+        acc.methodNames.add(memberRef.getReference().getSimpleName());
+        acc.addType(memberRef.getReferenceType());
+        if (memberRef.getReferenceType() instanceof JavaType.Method) {
+            acc.methodNames.add(((JavaType.Method) memberRef.getReferenceType()).getName());
+        }
+        return super.visitMemberReference(memberRef, p);
+    }
+
+    private static class Accumulator {
+        private final Set<Class<? extends J>> kinds = new HashSet<>();
+        private final Set<String> types = new HashSet<>();
+        private final Set<String> methodNames = new HashSet<>();
+        private final Set<String> tokens = new HashSet<>();
+
+        private void addType(@Nullable JavaType type) {
+            if (type instanceof JavaType.Class) {
+                // type parameters of type parameters are finite, since recursive references are represented as
+                // cyclic types
+                if (types.add(((JavaType.Class) type).getFullyQualifiedName())) {
+                    for (JavaType typeParameter : ((JavaType.Class) type).getTypeParameters()) {
+                        addType(typeParameter);
+                    }
+                }
+            } else if (type instanceof JavaType.FullyQualified) {
+                types.add(((JavaType.FullyQualified) type).getFullyQualifiedName());
+            } else if (type instanceof JavaType.Method) {
+                addType(((JavaType.Method) type).getDeclaringType());
+            } else if (type instanceof JavaType.Variable) {
+                addType(((JavaType.Variable) type).getType());
+            } else if (type instanceof JavaType.Array) {
+                addType(((JavaType.Array) type).getElemType());
+            } else if (type instanceof JavaType.MultiCatch) {
+                for (JavaType throwableType : ((JavaType.MultiCatch) type).getThrowableTypes()) {
+                    addType(throwableType);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Describes what the code of a template can refer to at an insertion point, which is all that the types attributed to
+ * the template's snippets depend upon: the package and imports of the compilation unit, the classes it declares, the
+ * declarations of the classes that enclose the insertion point, the variables in scope there, and the kind and type of
+ * every tree on the path to it. Formatting, comments, annotations, initializers and every statement that declares
+ * nothing are left out, so that insertion points which only differ in those share a signature.
+ * <p>
+ * A signature is much shorter than the synthetic compilation unit generated for the insertion point, and is cheaper to
+ * produce, since none of the rest of the compilation unit is printed.
+ */
+public class ContextSignature {
+    private ContextSignature() {
+    }
+
+    /**
+     * @param insertionScope The cursor path from the compilation unit to the tree at the coordinates.
+     * @param changing       The tree being changed, which takes the place of the tree with the same id in the path.
+     * @param coordinates    Where the template is inserted.
+     * @return The signature of the insertion point.
+     */
+    public static String of(Cursor insertionScope, Tree changing, JavaCoordinates coordinates) {
+        List<J> path = new ArrayList<>();
+        for (Iterator<Object> values = insertionScope.getPath(); values.hasNext(); ) {
+            Object value = values.next();
+            if (value instanceof J) {
+                path.add(0, ((J) value).getId().equals(changing.getId()) ? (J) changing : (J) value);
+            }
+        }
+
+        StringBuilder signature = new StringBuilder();
+        signature.append(coordinates.getMode()).append(' ').append(coordinates.getSpaceLocation()).append('\n');
+        for (int i = 0; i < path.size(); i++) {
+            J tree = path.get(i);
+            J parent = i > 0 ? path.get(i - 1) : null;
+            J child = i + 1 < path.size() ? path.get(i + 1) : null;
+
+            signature.append(tree.getClass().getSimpleName());
+            if (tree instanceof Expression) {
+                signature.append(' ');
+                describe(((Expression) tree).getType(), signature);
+            }
+            signature.append('\n');
+
+            if (tree instanceof J.CompilationUnit) {
+                compilationUnit((J.CompilationUnit) tree, signature);
+            } else if (tree instanceof J.ClassDeclaration) {
+                J.ClassDeclaration classDecl = (J.ClassDeclaration) tree;
+                signature.append(header(classDecl)).append('\n');
+            } else if (tree instanceof J.Block &&
+                    (parent instanceof J.ClassDeclaration || parent instanceof J.NewClass)) {
+                for (Statement member : ((J.Block) tree).getStatements()) {
+                    member(member, signature);
+                }
+            } else if (tree instanceof J.Block) {
+                // when the block itself is at the coordinates, every statement precedes the template unless it is
+                // inserted at the start of the block
+                boolean nonePrecede = child == null && coordinates.getSpaceLocation() == Space.Location.BLOCK_PREFIX;
+                for (Statement statement : ((J.Block) tree).getStatements()) {
+                    if (nonePrecede || child != null && statement.getId().equals(child.getId())) {
+                        break;
+                    }
+                    if (statement instanceof J.VariableDeclarations) {
+                        variables((J.VariableDeclarations) statement, signature);
+                    } else if (statement instanceof J.ClassDeclaration) {
+                        signature.append(header((J.ClassDeclaration) statement)).append('\n');
+                    }
+                }
+            } else {
+                new Declarations(child).visit(tree, signature);
+            }
+        }
+        return signature.toString();
+    }
+
+    private static void compilationUnit(J.CompilationUnit cu, StringBuilder signature) {
+        if (cu.getPackageDeclaration() != null) {
+            signature.append(cu.getPackageDeclaration().printTrimmed()).append('\n');
+        }
+        for (J.Import anImport : cu.getImports()) {
+            signature.append(anImport.printTrimmed()).append('\n');
+        }
+        for (J.ClassDeclaration classDecl : cu.getClasses()) {
+            signature.append(classDecl.getSimpleName()).append('\n');
+        }
+    }
+
+    private static void member(Statement member, StringBuilder signature) {
+        if (member instanceof J.VariableDeclarations) {
+            variables((J.VariableDeclarations) member, signature);
+        } else if (member instanceof J.MethodDeclaration) {
+            J.MethodDeclaration method = (J.MethodDeclaration) member;
+            signature.append(method.withLeadingAnnotations(emptyList()).withBody(null).printTrimmed()).append('\n');
+        } else if (member instanceof J.ClassDeclaration) {
+            signature.append(header((J.ClassDeclaration) member)).append('\n');
+        } else if (member instanceof J.EnumValueSet) {
+            for (J.EnumValue enumValue : ((J.EnumValueSet) member).getEnums()) {
+                signature.append(enumValue.getName().getSimpleName()).append(',');
+            }
+            signature.append('\n');
+        }
+    }
+
+    private static String header(J.ClassDeclaration classDecl) {
+        return classDecl.withLeadingAnnotations(emptyList())
+                .withBody(classDecl.getBody().withStatements(emptyList()))
+                .printTrimmed();
+    }
+
+    private static void variables(J.VariableDeclarations variables, StringBuilder signature) {
+        for (J.VariableDeclarations.NamedVariable variable : variables.getVariables()) {
+            signature.append(variable.getSimpleName()).append(':');
+            if (variables.getTypeExpression() == null) {
+                describe(variable.getType(), signature);
+            } else {
+                signature.append(variables.getTypeExpression().printTrimmed());
+            }
+            int dimensions = variables.getDimensionsBeforeName().size() + variable.getDimensionsAfterName().size();
+            for (int i = 0; i < dimensions; i++) {
+                signature.append("[]");
+            }
+            if (variables.getVarargs() != null) {
+                signature.append("...");
+            }
+            signature.append('\n');
+        }
+    }
+
+    private static void describe(@Nullable JavaType type, StringBuilder signature) {
+        if (type instanceof JavaType.Method) {
+            JavaType.Method method = (JavaType.Method) type;
+            describe(method.getDeclaringType(), signature);
+            signature.append('#').append(method.getName()).append('(');
+            if (method.getResolvedSignature() != null) {
+                for (JavaType paramType : method.getResolvedSignature().getParamTypes()) {
+                    describe(paramType, signature);
+                    signature.append(',');
+                }
+            }
+            signature.append(')');
+        } else if (type instanceof JavaType.FullyQualified) {
+            signature.append(((JavaType.FullyQualified) type).getFullyQualifiedName());
+        } else if (type instanceof JavaType.Primitive) {
+            signature.append(((JavaType.Primitive) type).getKeyword());
+        } else if (type instanceof JavaType.Array) {
+            describe(((JavaType.Array) type).getElemType(), signature);
+            signature.append("[]");
+        } else {
+            signature.append(type == null ? "null" : type.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Collects the variables a tree declares for the trees it encloses, like the parameters of a method or lambda,
+     * the variables of a loop's control or the resources of a try, without descending into blocks, which declare
+     * variables that are only in scope within themselves, or into the tree on the path to the insertion point.
+     */
+    private static class Declarations extends JavaVisitor<StringBuilder> {
+        @Nullable
+        private final J pathChild;
+
+        private Declarations(@Nullable J pathChild) {
+            this.pathChild = pathChild;
+        }
+
+        @Override
+        public @Nullable J visit(@Nullable Tree tree, StringBuilder signature) {
+            if (tree != null && pathChild != null && tree.getId().equals(pathChild.getId())) {
+                return (J) tree;
+            }
+            return super.visit(tree, signature);
+        }
+
+        @Override
+        public J visitBlock(J.Block block, StringBuilder signature) {
+            return block;
+        }
+
+        @Override
+        public J visitVariableDeclarations(J.VariableDeclarations multiVariable, StringBuilder signature) {
+            variables(multiVariable, signature);
+            return multiVariable;
+        }
+    }
+}
@@ -15,6 +15,7 @@
  */
 package org.openrewrite.java.internal.template;
 
+import lombok.Value;
 import org.openrewrite.Cursor;
 import org.openrewrite.Tree;
 import org.openrewrite.internal.ListUtils;
@@ -24,88 +25,99 @@ import org.openrewrite.java.format.AutoFormatVisitor;
 import org.openrewrite.java.tree.*;
 import org.openrewrite.marker.Markers;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
 import java.util.stream.Collectors;
 
 import static org.openrewrite.java.tree.JavaCoordinates.Mode.INSERTION;
 
 /**
  * This visitor will insert the generated elements into the correct location within an AST and return the mutated
- * version.
+ * version. Any number of insertions may be applied in the same traversal, as long as each targets a different tree
+ * element or they are all insertions at the same location of that element.
  */
-public class InsertAtCoordinates extends JavaVisitor<List<? extends J>> {
+public class InsertAtCoordinates extends JavaVisitor<Integer> {
     private static final J.Block EMPTY_BLOCK = new J.Block(Tree.randomId(), Space.EMPTY, Markers.EMPTY,
             new JRightPadded<>(false, Space.EMPTY, Markers.EMPTY), Collections.emptyList(), Space.EMPTY);
 
-    private final UUID insertId;
-    private final Space.Location location;
-    private final JavaCoordinates coordinates;
+    private final Map<UUID, Insertion> insertions = new HashMap<>();
 
-    public InsertAtCoordinates(JavaCoordinates coordinates) {
-        this.coordinates = coordinates;
-        this.insertId = coordinates.getTree().getId();
-        this.location = coordinates.getSpaceLocation();
+    public InsertAtCoordinates(JavaCoordinates coordinates, List<? extends J> generated) {
+        this(Collections.singletonList(new Insertion(coordinates, generated)));
+    }
+
+    public InsertAtCoordinates(List<Insertion> insertions) {
+        for (Insertion insertion : insertions) {
+            this.insertions.merge(insertion.getCoordinates().getTree().getId(), insertion, Insertion::merge);
+        }
     }
 
     @Nullable
     @Override
-    public J preVisit(@Nullable J tree, List<? extends J> generated) {
-        if (tree == null || !coordinates.isReplaceWholeCursorValue() || !tree.getId().equals(insertId)) {
+    public J preVisit(@Nullable J tree, Integer p) {
+        if (tree == null) {
+            return null;
+        }
+        Insertion insertion = insertions.get(tree.getId());
+        if (insertion == null || !insertion.getCoordinates().isReplaceWholeCursorValue()) {
             return tree;
         }
         // Handles all cases where there is a replace on the current element.
-        if (generated.size() == 1) {
+        if (insertion.getGenerated().size() == 1) {
             //noinspection ConstantConditions
-            return new AutoFormatVisitor<>().visit(generated.get(0), 0, getCursor()).withPrefix(tree.getPrefix());
+            return new AutoFormatVisitor<>().visit(insertion.getGenerated().get(0), 0, getCursor()).withPrefix(tree.getPrefix());
         } else {
             throw new IllegalStateException("The template generated the incorrect number of elements.");
         }
     }
 
     @Override
-    public J visitBlock(J.Block block, List<? extends J> generated) {
-        J.Block b = visitAndCast(block, generated, super::visitBlock);
+    public J visitBlock(J.Block block, Integer p) {
+        J.Block b = visitAndCast(block, p, super::visitBlock);
+
+        List<Statement> originalStatements = b.getStatements();
+        List<Statement> statements = maybeMergeList(originalStatements, true);
+        if (statements != originalStatements) {
+            AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
+            Set<Statement> original = Collections.newSetFromMap(new IdentityHashMap<>());
+            original.addAll(originalStatements);
+
+            //noinspection ConstantConditions
+            b = b.withStatements(ListUtils.map(statements, s -> original.contains(s) ? s :
+                    (Statement) autoFormat.visit(s, 0, getCursor())));
+        }
 
-        if (b.getId().equals(insertId) && location == Space.Location.BLOCK_END) {
+        Insertion insertion = insertions.get(b.getId());
+        if (insertion != null && insertion.getCoordinates().getSpaceLocation() == Space.Location.BLOCK_END) {
             AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
-            for (J j : generated) {
+            for (J j : insertion.getGenerated()) {
                 if (!(j instanceof Statement)) {
                     throw new IllegalStateException("Attempted to insert a tree of type " + j.getClass().getSimpleName() + " as a block statement");
                 }
             }
-            List<Statement> formatted = generated.stream()
+            List<Statement> formatted = insertion.getGenerated().stream()
                     .map(it -> autoFormat.visit(it, 0, getCursor()))
                     .map(Statement.class::cast)
                     .collect(Collectors.toList());
 
-            return b.withStatements(ListUtils.concatAll(b.getStatements(), formatted));
-        } else if (b.getStatements().stream().anyMatch(s -> insertId.equals(s.getId()))) {
-            AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
-            List<Statement> formatted = generated.stream()
-                    .map(it -> autoFormat.visit(it, 0, getCursor()))
-                    .map(Statement.class::cast)
-                    .collect(Collectors.toList());
-
-            //noinspection ConstantConditions
-            b = b.withStatements(maybeMergeList(b.getStatements(), formatted));
+            b = b.withStatements(ListUtils.concatAll(b.getStatements(), formatted));
         }
         return b;
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public J visitClassDeclaration(J.ClassDeclaration classDeclaration, List<? extends J> generated) {
-        J.ClassDeclaration c = visitAndCast(classDeclaration, generated, super::visitClassDeclaration);
-        if (insertId.equals(c.getId())) {
+    public J visitClassDeclaration(J.ClassDeclaration classDeclaration, Integer p) {
+        J.ClassDeclaration c = visitAndCast(classDeclaration, p, super::visitClassDeclaration);
+        Insertion insertion = insertions.get(c.getId());
+        if (insertion != null && insertion.getCoordinates().getSpaceLocation() != null) {
+            JavaCoordinates coordinates = insertion.getCoordinates();
+            List<? extends J> generated = insertion.getGenerated();
             AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
-            switch (location) {
+            switch (coordinates.getSpaceLocation()) {
                 case ANNOTATIONS: {
                     J.ClassDeclaration temp;
                     if (INSERTION.equals(coordinates.getMode())) {
-                        temp = c.withLeadingAnnotations(ListUtils.insertInOrder(c.getLeadingAnnotations(), (J.Annotation) generated.get(0),
+                        temp = c.withLeadingAnnotations(insertAllInOrder(c.getLeadingAnnotations(), generated,
                                 coordinates.getComparator()));
                     } else {
                         temp = c.withLeadingAnnotations((List<J.Annotation>) generated);
@@ -143,46 +155,50 @@ public class InsertAtCoordinates extends JavaVisitor<List<? extends J>> {
                     c = c.withBody((J.Block) generated.get(0));
                     break;
             }
-        } else {
-            J.ClassDeclaration temp = c.withLeadingAnnotations(maybeMergeList(c.getLeadingAnnotations(), generated));
-            if (temp != c) {
-                //If the annotations have changed, reformat the class declaration (so we can get properly formatted
-                //annotations). The class declaration is reformatted (minus the body) and we must format
-                //relative to the first enclosing J.Block or the J.CompilationUnit
-                temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getFormattingParent(getCursor()));
-                assert temp != null;
-                return temp.withBody(c.getBody());
-            }
-            temp = c.withTypeParameters(maybeMergeList(c.getTypeParameters(), generated));
-            if (temp != c) {
-                //If the type parameters have changed, apply formatting to the container.
-                temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
-                assert temp != null;
-                return c.getPadding().withTypeParameters(temp.getPadding().getTypeParameters());
-            }
+        }
 
-            temp = c.withImplements(maybeMergeList(c.getImplements(), generated));
-            if (temp != c) {
-                //If the implements clause has changed, apply formatting to the container.
-                temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
-                assert temp != null;
-                return c.getPadding().withImplements(temp.getPadding().getImplements());
-            }
+        J.ClassDeclaration temp = c.withLeadingAnnotations(maybeMergeList(c.getLeadingAnnotations(), true));
+        if (temp != c) {
+            //If the annotations have changed, reformat the class declaration (so we can get properly formatted
+            //annotations). The class declaration is reformatted (minus the body) and we must format
+            //relative to the first enclosing J.Block or the J.CompilationUnit
+            temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getFormattingParent(getCursor()));
+            assert temp != null;
+            c = temp.withBody(c.getBody());
+        }
+
+        temp = c.withTypeParameters(maybeMergeList(c.getTypeParameters(), true));
+        if (temp != c) {
+            //If the type parameters have changed, apply formatting to the container.
+            temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
+            assert temp != null;
+            c = c.getPadding().withTypeParameters(temp.getPadding().getTypeParameters());
+        }
+
+        temp = c.withImplements(maybeMergeList(c.getImplements(), true));
+        if (temp != c) {
+            //If the implements clause has changed, apply formatting to the container.
+            temp = (J.ClassDeclaration) new AutoFormatVisitor<>().visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
+            assert temp != null;
+            c = c.getPadding().withImplements(temp.getPadding().getImplements());
         }
         return c;
     }
 
     @Override
     @SuppressWarnings("unchecked")
-    public J visitMethodDeclaration(J.MethodDeclaration method, List<? extends J> generated) {
-        J.MethodDeclaration m = visitAndCast(method, generated, super::visitMethodDeclaration);
+    public J visitMethodDeclaration(J.MethodDeclaration method, Integer p) {
+        J.MethodDeclaration m = visitAndCast(method, p, super::visitMethodDeclaration);
         AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
-        if (insertId.equals(m.getId())) {
-            switch (location) {
+        Insertion insertion = insertions.get(m.getId());
+        if (insertion != null && insertion.getCoordinates().getSpaceLocation() != null) {
+            JavaCoordinates coordinates = insertion.getCoordinates();
+            List<? extends J> generated = insertion.getGenerated();
+            switch (coordinates.getSpaceLocation()) {
                 case ANNOTATIONS: {
                     J.MethodDeclaration temp;
                     if (INSERTION.equals(coordinates.getMode())) {
-                        temp = m.withLeadingAnnotations(ListUtils.insertInOrder(m.getLeadingAnnotations(), (J.Annotation) generated.get(0),
+                        temp = m.withLeadingAnnotations(insertAllInOrder(m.getLeadingAnnotations(), generated,
                                 coordinates.getComparator()));
                     } else {
                         temp = m.withLeadingAnnotations((List<J.Annotation>) generated);
@@ -221,70 +237,70 @@ public class InsertAtCoordinates extends JavaVisitor<List<? extends J>> {
                     m = m.withBody((J.Block) generated.get(0));
                     break;
             }
-        } else {
-            J.MethodDeclaration temp = m.withLeadingAnnotations(maybeMergeList(m.getLeadingAnnotations(), generated));
-            if (temp != m) {
-                //If the annotations have changed, reformat the method declaration (so we can get properly formatted
-                //annotations). The entire method declaration is reformatted (minus the body) and we must format
-                //relative to the first enclosing J.Block.
-                temp = (J.MethodDeclaration) new AutoFormatVisitor<>().visit(m.withBody(EMPTY_BLOCK), 0,
-                        getFormattingParent(getCursor()));
-                assert temp != null;
-                return temp.withBody(m.getBody());
+        }
 
-            }
+        J.MethodDeclaration temp = m.withLeadingAnnotations(maybeMergeList(m.getLeadingAnnotations(), true));
+        if (temp != m) {
+            //If the annotations have changed, reformat the method declaration (so we can get properly formatted
+            //annotations). The entire method declaration is reformatted (minus the body) and we must format
+            //relative to the first enclosing J.Block.
+            temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0,
+                    getFormattingParent(getCursor()));
+            assert temp != null;
+            m = temp.withBody(m.getBody());
+        }
 
-            temp = m.withTypeParameters(maybeMergeList(m.getTypeParameters(), generated));
-            if (temp != m) {
-                //Auto-format the type parameters if they have been changed.
-                temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
-                assert temp != null;
-                return m.getAnnotations().withTypeParameters(temp.getAnnotations().getTypeParameters());
-            }
+        temp = m.withTypeParameters(maybeMergeList(m.getTypeParameters(), true));
+        if (temp != m) {
+            //Auto-format the type parameters if they have been changed.
+            temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
+            assert temp != null;
+            m = m.getAnnotations().withTypeParameters(temp.getAnnotations().getTypeParameters());
+        }
 
-            temp = m.withParameters(maybeMergeList(m.getParameters(), generated));
-            if (temp != m) {
-                //Auto-format the parameters if they have been changed.
-                temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
-                assert temp != null;
-                return m.getPadding().withParameters(temp.getPadding().getParameters());
-            }
+        temp = m.withParameters(maybeMergeList(m.getParameters(), true));
+        if (temp != m) {
+            //Auto-format the parameters if they have been changed.
+            temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
+            assert temp != null;
+            m = m.getPadding().withParameters(temp.getPadding().getParameters());
+        }
 
-            temp = m.withThrows(maybeMergeList(m.getThrows(), generated));
-            if (temp != m) {
-                //Auto-format the throws clause if a change has been made.
-                temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
-                assert temp != null;
-                return m.getPadding().withThrows(temp.getPadding().getThrows());
-            }
+        temp = m.withThrows(maybeMergeList(m.getThrows(), true));
+        if (temp != m) {
+            //Auto-format the throws clause if a change has been made.
+            temp = (J.MethodDeclaration) autoFormat.visit(temp.withBody(EMPTY_BLOCK), 0, getCursor());
+            assert temp != null;
+            m = m.getPadding().withThrows(temp.getPadding().getThrows());
         }
         return m;
     }
 
     @SuppressWarnings("unchecked")
     @Override
-    public J visitVariableDeclarations(J.VariableDeclarations multiVariable, List<? extends J> generated) {
-        J.VariableDeclarations m = (J.VariableDeclarations) super.visitVariableDeclarations(multiVariable, generated);
+    public J visitVariableDeclarations(J.VariableDeclarations multiVariable, Integer p) {
+        J.VariableDeclarations m = (J.VariableDeclarations) super.visitVariableDeclarations(multiVariable, p);
         AutoFormatVisitor<Integer> autoFormat = new AutoFormatVisitor<>();
-        if (insertId.equals(m.getId())) {
-            if (location == Space.Location.ANNOTATIONS) {
-                if (INSERTION.equals(coordinates.getMode())) {
-                    m = m.withLeadingAnnotations(ListUtils.insertInOrder(m.getLeadingAnnotations(), (J.Annotation) generated.get(0),
-                            coordinates.getComparator()));
-                } else {
-                    m = m.withLeadingAnnotations((List<J.Annotation>) generated);
-                }
-                //If the annotations have changed, reformat the variable declaration (so we can get properly formatted
-                //annotations). We must format relative to the first enclosing J.Block.
-                m = (J.VariableDeclarations) autoFormat.visit(m, 0, getFormattingParent(getCursor()));
-            }
-        } else {
-            J.VariableDeclarations temp = m.withLeadingAnnotations(maybeMergeList(m.getLeadingAnnotations(), generated));
-            if (temp != m) {
-                //If the annotations have changed, reformat the variable declaration (so we can get properly formatted
-                //annotations). We must format relative to the first enclosing J.Block.
-                m = (J.VariableDeclarations) autoFormat.visit(m, 0, getFormattingParent(getCursor()));
+        Insertion insertion = insertions.get(m.getId());
+        if (insertion != null && insertion.getCoordinates().getSpaceLocation() == Space.Location.ANNOTATIONS) {
+            JavaCoordinates coordinates = insertion.getCoordinates();
+            if (INSERTION.equals(coordinates.getMode())) {
+                m = m.withLeadingAnnotations(insertAllInOrder(m.getLeadingAnnotations(), insertion.getGenerated(),
+                        coordinates.getComparator()));
+            } else {
+                m = m.withLeadingAnnotations((List<J.Annotation>) insertion.getGenerated());
             }
+            //If the annotations have changed, reformat the variable declaration (so we can get properly formatted
+            //annotations). We must format relative to the first enclosing J.Block.
+            m = (J.VariableDeclarations) autoFormat.visit(m, 0, getFormattingParent(getCursor()));
+            assert m != null;
+        }
+
+        J.VariableDeclarations temp = m.withLeadingAnnotations(maybeMergeList(m.getLeadingAnnotations(), true));
+        if (temp != m) {
+            //If the annotations have changed, reformat the variable declaration (so we can get properly formatted
+            //annotations). We must format relative to the first enclosing J.Block.
+            m = (J.VariableDeclarations) autoFormat.visit(temp, 0, getFormattingParent(getCursor()));
         }
         assert m != null;
         return m;
@@ -292,14 +308,15 @@ public class InsertAtCoordinates extends JavaVisitor<List<? extends J>> {
 
     @Override
     @SuppressWarnings("unchecked")
-    public J visitMethodInvocation(J.MethodInvocation method, List<? extends J> generated) {
-        J.MethodInvocation m = visitAndCast(method, generated, super::visitMethodInvocation);
+    public J visitMethodInvocation(J.MethodInvocation method, Integer p) {
+        J.MethodInvocation m = visitAndCast(method, p, super::visitMethodInvocation);
         J.MethodInvocation temp = m;
-        if (insertId.equals(m.getId()) && location == Space.Location.METHOD_INVOCATION_ARGUMENTS) {
-            temp = m.withArguments((List<Expression>) generated);
-        } else if (!coordinates.isReplacement()) {
+        Insertion insertion = insertions.get(m.getId());
+        if (insertion != null && insertion.getCoordinates().getSpaceLocation() == Space.Location.METHOD_INVOCATION_ARGUMENTS) {
+            temp = m.withArguments((List<Expression>) insertion.getGenerated());
+        } else {
             //noinspection ConstantConditions
-            temp = m.withArguments(maybeMergeList(m.getArguments(), generated));
+            temp = m.withArguments(maybeMergeList(m.getArguments(), false));
         }
 
         if (temp != m) {
@@ -322,26 +339,69 @@ public class InsertAtCoordinates extends JavaVisitor<List<? extends J>> {
         return originalCursor.dropParentUntil(v -> v instanceof J.Block || v instanceof J.CompilationUnit);
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<J.Annotation> insertAllInOrder(List<J.Annotation> annotations, List<? extends J> generated,
+                                                       Comparator<J.Annotation> comparator) {
+        for (J annotation : generated) {
+            annotations = ListUtils.insertInOrder(annotations, (J.Annotation) annotation, comparator);
+        }
+        return annotations;
+    }
+
+    /**
+     * Splice the generated elements of every insertion that targets an element of the list into the list, in one
+     * pass over it.
+     *
+     * @param includeReplacements Whether replacements of an element are spliced in after it, or ignored.
+     */
     @SuppressWarnings("unchecked")
     @Nullable
-    private <T extends J> List<T> maybeMergeList(@Nullable List<T> originalList, List<? extends J> generated) {
-        if (originalList != null) {
-            for (int index = 0; index < originalList.size(); index++) {
-                if (insertId.equals(originalList.get(index).getId())) {
-                    List<T> newList = new ArrayList<>();
-                    if (coordinates.isReplacement()) {
-                        newList.addAll(originalList.subList(0, index + 1));
-                        newList.addAll((List<T>) generated);
-                        newList.addAll(originalList.subList(index + 1, originalList.size()));
-                    } else {
-                        newList.addAll(originalList.subList(0, index));
-                        newList.addAll((List<T>) generated);
-                        newList.addAll(originalList.subList(index, originalList.size()));
-                    }
-                    return newList;
+    private <T extends J> List<T> maybeMergeList(@Nullable List<T> originalList, boolean includeReplacements) {
+        if (originalList == null) {
+            return null;
+        }
+        List<T> newList = null;
+        for (int index = 0; index < originalList.size(); index++) {
+            T element = originalList.get(index);
+            Insertion insertion = insertions.get(element.getId());
+            if (insertion != null && (includeReplacements || !insertion.getCoordinates().isReplacement())) {
+                if (newList == null) {
+                    newList = new ArrayList<>(originalList.size() + insertion.getGenerated().size());
+                    newList.addAll(originalList.subList(0, index));
                 }
+                if (insertion.getCoordinates().isReplacement()) {
+                    newList.add(element);
+                    newList.addAll((List<T>) insertion.getGenerated());
+                } else {
+                    newList.addAll((List<T>) insertion.getGenerated());
+                    newList.add(element);
+                }
+            } else if (newList != null) {
+                newList.add(element);
+            }
+        }
+        return newList == null ? originalList : newList;
+    }
+
+    /**
+     * The elements generated from a template, and where they go.
+     */
+    @Value
+    public static class Insertion {
+        JavaCoordinates coordinates;
+        List<? extends J> generated;
+
+        Insertion merge(Insertion other) {
+            if (coordinates.getMode() != INSERTION || other.coordinates.getMode() != INSERTION ||
+                    coordinates.getSpaceLocation() != other.coordinates.getSpaceLocation()) {
+                throw new IllegalArgumentException("Only insertions at the same location may target the same tree element, " +
+                        "but found " + coordinates.getMode() + " at " + coordinates.getSpaceLocation() + " and " +
+                        other.coordinates.getMode() + " at " + other.coordinates.getSpaceLocation());
             }
+            List<J> merged = new ArrayList<>(generated.size() + other.generated.size());
+            merged.addAll(generated);
+            merged.addAll(other.generated);
+            return new Insertion(coordinates, merged);
         }
-        return originalList;
     }
 }
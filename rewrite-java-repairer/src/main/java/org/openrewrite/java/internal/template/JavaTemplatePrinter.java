@@ -40,14 +40,28 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
     private final Tree changing;
     private final Set<String> imports;
     private final String code;
+    private final boolean minimalContext;
 
 
     public JavaTemplatePrinter(String code, Tree changing, JavaCoordinates coordinates, Set<String> imports) {
+        this(code, changing, coordinates, imports, false);
+    }
+
+    /**
+     * @param minimalContext Whether to print only the declarations that are reachable from the insertion scope without
+     *                       qualification. Top level classes that don't enclose the insertion scope are printed
+     *                       without their members, blocks enclosing the insertion scope only keep the local variable
+     *                       and class declarations that precede it, and comments are left out. The types of everything
+     *                       else are resolved from the parser's classpath.
+     */
+    public JavaTemplatePrinter(String code, Tree changing, JavaCoordinates coordinates, Set<String> imports,
+                               boolean minimalContext) {
         super(TreePrinter.identity());
         this.code = "/*" + SNIPPET_MARKER_START + "*/" + code + "/*" + SNIPPET_MARKER_END + "*/";
         this.coordinates = coordinates;
         this.changing = changing;
         this.imports = imports;
+        this.minimalContext = minimalContext;
     }
 
     @Override
@@ -106,9 +120,13 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
                 // up to the statement that is in insertion scope.
                 List<Statement> statementsInScope = new ArrayList<>();
                 for (Statement statement : b.getStatements()) {
-                    statementsInScope.add(statement);
                     if (insertionScope.isScopeInPath(statement)) {
+                        statementsInScope.add(statement);
                         break;
+                    } else if (!minimalContext || statement instanceof J.VariableDeclarations ||
+                            statement instanceof J.ClassDeclaration) {
+                        // In a minimal context, only the declarations that are in scope at the insertion point matter.
+                        statementsInScope.add(statement);
                     }
                 }
                 b = b.withStatements(statementsInScope);
@@ -124,13 +142,24 @@ public class JavaTemplatePrinter extends JavaPrinter<Cursor> {
         if (loc == coordinates.getSpaceLocation() && j != null && coordinates.getTree().getId().equals(j.getId())) {
             printTemplate();
         }
+        if (minimalContext && !space.getComments().isEmpty()) {
+            // comments play no part in type attribution, but may be all that separates two tokens
+            getPrinter().append(space.getWhitespace()).append(' ');
+            return space;
+        }
         return super.visitSpace(space, loc, cursor);
     }
 
     @Override
     public J visitClassDeclaration(J.ClassDeclaration classDecl, Cursor insertionScope) {
         if (!insertionScope.isScopeInPath(classDecl)) {
-            return super.visitClassDeclaration(classDecl.withLeadingAnnotations(emptyList()), insertionScope);
+            J.ClassDeclaration c = classDecl.withLeadingAnnotations(emptyList());
+            if (minimalContext &&
+                    getCursor().dropParentUntil(J.class::isInstance).getValue() instanceof J.CompilationUnit) {
+                // classes declared within an enclosing class keep their members, whose bodies are emptied
+                c = c.withBody(c.getBody().withStatements(emptyList()));
+            }
+            return super.visitClassDeclaration(c, insertionScope);
         } else if  (!classDecl.getId().equals(coordinates.getTree().getId())) {
             return super.visitClassDeclaration(classDecl, insertionScope);
         }
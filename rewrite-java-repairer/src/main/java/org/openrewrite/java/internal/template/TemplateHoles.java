@@ -0,0 +1,160 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.Comment;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JLeftPadded;
+import org.openrewrite.java.tree.JRightPadded;
+import org.openrewrite.java.tree.Space;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Typed holes are template parameters that are grafted into the generated snippets as trees, rather than printed into
+ * the template's source. Because the source of a template with only typed holes doesn't depend upon its parameters,
+ * applying it with different parameters in the same context compiles it once.
+ * <p>
+ * A typed hole is compiled as a cast of a marked default value to the hole's type, e.g. {@code ((java.lang.String)
+ * null)}, so that the rest of the template is attributed as it would be with the parameter in its place. Holes may
+ * therefore only appear where an expression is expected.
+ */
+public class TemplateHoles {
+    private static final Pattern HOLE_MARKER = Pattern.compile("__hole(\\d+)__");
+
+    private TemplateHoles() {
+    }
+
+    /**
+     * @param index The position of the parameter among all of the template's parameters.
+     * @param type  The fully-qualified type of the hole, which may be primitive or parameterized.
+     * @return Source code that compiles to an expression of the given type and is recognized as the hole.
+     */
+    public static String placeholder(int index, String type) {
+        String defaultValue;
+        switch (type) {
+            case "boolean":
+                defaultValue = "false";
+                break;
+            case "byte":
+            case "char":
+            case "short":
+            case "int":
+            case "long":
+            case "float":
+            case "double":
+                defaultValue = "0";
+                break;
+            default:
+                defaultValue = "null";
+        }
+        return "((" + type + ") /*__hole" + index + "__*/" + defaultValue + ")";
+    }
+
+    /**
+     * Replace each hole in the snippets with the parameter at the hole's index. The parameter takes the place, and the
+     * prefix, of the hole. The parentheses around the hole are kept unless the parameter is a primary expression, like
+     * an identifier or method invocation, so that an operation grafted into an operand isn't regrouped.
+     *
+     * @param snippets   The snippets of a template, already formatted for their insertion point.
+     * @param parameters The template's parameters. Holes whose parameter isn't a tree are left as they are.
+     * @return The snippets with their holes filled.
+     */
+    public static List<J> fill(List<J> snippets, Object[] parameters) {
+        FillHoles fillHoles = new FillHoles(parameters);
+        List<J> filled = new ArrayList<>(snippets.size());
+        for (J snippet : snippets) {
+            filled.add(fillHoles.visit(snippet, 0));
+        }
+        return filled;
+    }
+
+    /**
+     * @return The tree that would be grafted into a hole for this parameter, or null if it must be printed instead.
+     */
+    @Nullable
+    public static J graftable(@Nullable Object parameter) {
+        if (parameter instanceof J) {
+            return (J) parameter;
+        } else if (parameter instanceof JRightPadded) {
+            return graftable(((JRightPadded<?>) parameter).getElement());
+        } else if (parameter instanceof JLeftPadded) {
+            return graftable(((JLeftPadded<?>) parameter).getElement());
+        }
+        return null;
+    }
+
+    /**
+     * @return Whether the tree binds as tightly as any operand, so that it can take the place of a hole without
+     * parentheses.
+     */
+    private static boolean isPrimary(J tree) {
+        return tree instanceof J.Identifier ||
+                tree instanceof J.Literal ||
+                tree instanceof J.MethodInvocation ||
+                tree instanceof J.FieldAccess ||
+                tree instanceof J.Parentheses;
+    }
+
+    private static class FillHoles extends JavaVisitor<Integer> {
+        private final Object[] parameters;
+
+        private FillHoles(Object[] parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public <T extends J> J visitParentheses(J.Parentheses<T> parens, Integer p) {
+            if (parens.getTree() instanceof J.TypeCast) {
+                J value = ((J.TypeCast) parens.getTree()).getExpression();
+                for (Comment comment : value.getPrefix().getComments()) {
+                    Matcher hole = HOLE_MARKER.matcher(comment.getText());
+                    if (Comment.Style.BLOCK.equals(comment.getStyle()) && hole.matches()) {
+                        J parameter = graftable(parameters[Integer.parseInt(hole.group(1))]);
+                        if (parameter != null) {
+                            if (isPrimary(parameter) || isParenthesized()) {
+                                return parameter.withPrefix(parens.getPrefix());
+                            }
+                            // the hole's parentheses keep an operation from binding differently to its surroundings
+                            return new J.Parentheses<>(parens.getId(), parens.getPrefix(), parens.getMarkers(),
+                                    JRightPadded.build(parameter.withPrefix(Space.EMPTY)));
+                        }
+                    }
+                }
+            }
+            return super.visitParentheses(parens, p);
+        }
+
+        /**
+         * @return Whether the hole being visited is all there is within the parentheses of the template itself, which
+         * already keep an operation from binding differently to its surroundings.
+         */
+        private boolean isParenthesized() {
+            for (Cursor c = getCursor().getParent(); c != null; c = c.getParent()) {
+                if (c.getValue() instanceof J) {
+                    return c.getValue() instanceof J.Parentheses || c.getValue() instanceof J.ControlParentheses;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.WeakIdentityCache;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Remembers the snippets extracted from each synthetic compilation unit a template parser has compiled, so that
+ * applying a template again in an equivalent context skips generating and compiling a synthetic compilation unit
+ * entirely.
+ * <p>
+ * Snippets are keyed by the {@link ContextSignature signature} of the insertion point combined with the substituted
+ * template code and its imports, and by the identity of the parser (or pool of identically configured parsers) that
+ * compiled them, since type attribution depends upon the parser's classpath. Parsers and pools are held weakly, and a
+ * pool {@link #invalidate(Object) invalidates} its snippets when it is cleared, so that a pool that outlives a run,
+ * like the default one, doesn't keep them either. Each compiler's snippets are evicted least recently used first once
+ * there are more than {@code maximumSize} of them.
+ * <p>
+ * Snippets are cached as they were extracted, before being formatted for any particular insertion point. Every hit
+ * returns a copy of the snippets with new ids, so that no two insertions share an id. Hits and misses are counted as
+ * {@code rewrite.template.cache} tagged with the outcome, and evictions as {@code rewrite.template.cache.evictions}.
+ */
+public class TemplateSnippetCache {
+    private static final TemplateSnippetCache DEFAULT = new TemplateSnippetCache(
+            Integer.getInteger("rewrite.template.cache.size", 256), Metrics.globalRegistry);
+
+    private final int maximumSize;
+    private final WeakIdentityCache<Object, Map<String, List<J>>> snippetsByCompiler = new WeakIdentityCache<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    /**
+     * @param maximumSize The number of insertion points to remember snippets for per parser. 0 disables caching.
+     * @param registry    The registry to count hits, misses and evictions in.
+     */
+    public TemplateSnippetCache(int maximumSize, MeterRegistry registry) {
+        this.maximumSize = maximumSize;
+        this.hits = Counter.builder("rewrite.template.cache")
+                .description("Template applications that reused previously compiled snippets")
+                .tag("outcome", "hit")
+                .register(registry);
+        this.misses = Counter.builder("rewrite.template.cache")
+                .description("Template applications that compiled a synthetic compilation unit")
+                .tag("outcome", "miss")
+                .register(registry);
+        this.evictions = Counter.builder("rewrite.template.cache.evictions")
+                .register(registry);
+    }
+
+    /**
+     * @return The cache shared by templates that haven't been given one of their own. Its size per parser is set with
+     * the {@code rewrite.template.cache.size} system property.
+     */
+    public static TemplateSnippetCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @param compiler The parser, or pool of identically configured parsers, that would compile the synthetic
+     *                 compilation unit.
+     * @param key      The signature of the insertion point, template code and imports.
+     * @return A copy of the snippets last extracted for this key, with new ids, or null if they haven't been compiled
+     * by this compiler or have since been evicted.
+     */
+    @Nullable
+    public List<J> get(Object compiler, String key) {
+        List<J> snippets = null;
+        if (maximumSize > 0) {
+            Map<String, List<J>> lru = snippetsByCompiler.get(compiler);
+            if (lru != null) {
+                //noinspection SynchronizationOnLocalVariableOrMethodParameter
+                synchronized (lru) {
+                    snippets = lru.get(key);
+                }
+            }
+        }
+
+        if (snippets == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        List<J> renewed = new ArrayList<>(snippets.size());
+        RenewIds renewIds = new RenewIds();
+        for (J snippet : snippets) {
+            renewed.add(renewIds.visit(snippet, 0));
+        }
+        return renewed;
+    }
+
+    /**
+     * @param compiler The parser, or pool of identically configured parsers, that compiled the synthetic compilation
+     *                 unit.
+     * @param key      The signature of the insertion point, template code and imports.
+     * @param snippets The snippets extracted from it, before formatting.
+     */
+    public void put(Object compiler, String key, List<J> snippets) {
+        if (maximumSize <= 0) {
+            return;
+        }
+
+        Map<String, List<J>> lru;
+        synchronized (snippetsByCompiler) {
+            lru = snippetsByCompiler.get(compiler);
+            if (lru == null) {
+                lru = new LinkedHashMap<String, List<J>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, List<J>> eldest) {
+                        if (size() > maximumSize) {
+                            evictions.increment();
+                            return true;
+                        }
+                        return false;
+                    }
+                };
+                snippetsByCompiler.put(compiler, lru);
+            }
+        }
+
+        List<J> copy = new ArrayList<>(snippets);
+        //noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (lru) {
+            lru.put(key, copy);
+        }
+    }
+
+    /**
+     * Forget every snippet compiled by a parser or pool.
+     *
+     * @param compiler The parser, or pool of identically configured parsers, that compiled the snippets.
+     */
+    public void invalidate(Object compiler) {
+        synchronized (snippetsByCompiler) {
+            snippetsByCompiler.remove(compiler);
+        }
+    }
+
+    private static class RenewIds extends JavaVisitor<Integer> {
+        @Override
+        public J postVisit(J tree, Integer p) {
+            return tree.withId(Tree.randomId());
+        }
+    }
+}
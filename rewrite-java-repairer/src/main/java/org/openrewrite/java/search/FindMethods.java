@@ -17,10 +17,12 @@ package org.openrewrite.java.search;
 
 import lombok.EqualsAndHashCode;
 import lombok.Value;
+import org.openrewrite.Applicability;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Option;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.MethodMatcher;
 import org.openrewrite.java.marker.JavaSearchResult;
@@ -62,10 +64,45 @@ public class FindMethods extends Recipe {
         return "Find methods by pattern.";
     }
 
+    @Override
+    protected @Nullable Applicability getApplicability() {
+        return applicability(methodPattern);
+    }
+
+    @Nullable
+    private static Applicability applicability(String methodPattern) {
+        int argumentsStart = methodPattern.indexOf('(');
+        if (argumentsStart < 0) {
+            return null;
+        }
+        String methodName = methodPattern.substring(0, argumentsStart).trim();
+        methodName = methodName.substring(methodName.lastIndexOf(' ') + 1);
+
+        // method name patterns with wildcards can't be tested against an index of method names
+        return isJavaIdentifier(methodName) ? Applicability.methodNames(methodName) : null;
+    }
+
+    private static boolean isJavaIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         MethodMatcher methodMatcher = new MethodMatcher(methodPattern);
         return new JavaIsoVisitor<ExecutionContext>() {
+            @Override
+            protected @Nullable Applicability getInterest() {
+                return applicability(methodPattern);
+            }
+
             @Override
             public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
                 J.MethodInvocation m = super.visitMethodInvocation(method, ctx);
@@ -101,6 +138,11 @@ public class FindMethods extends Recipe {
     public static Set<J> find(J j, String methodPattern) {
         MethodMatcher methodMatcher = new MethodMatcher(methodPattern);
         JavaIsoVisitor<Set<J>> findVisitor = new JavaIsoVisitor<Set<J>>() {
+            @Override
+            protected @Nullable Applicability getInterest() {
+                return applicability(methodPattern);
+            }
+
             @Override
             public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Set<J> ms) {
                 if (methodMatcher.matches(method)) {
@@ -54,9 +54,18 @@ public class FindTypes extends Recipe {
 
     UUID id = Tree.randomId();
 
+    @Override
+    protected Applicability getApplicability() {
+        return Applicability.types(fullyQualifiedTypeName);
+    }
+
     @Override
     protected TreeVisitor<?, ExecutionContext> getVisitor() {
         return new JavaVisitor<ExecutionContext>() {
+            @Override
+            protected Applicability getInterest() {
+                return Applicability.types(fullyQualifiedTypeName);
+            }
 
             @Override
             public <N extends NameTree> N visitTypeName(N name, ExecutionContext ctx) {
@@ -86,6 +95,10 @@ public class FindTypes extends Recipe {
 
     public static Set<NameTree> find(J j, String fullyQualifiedClassName) {
         JavaIsoVisitor<Set<NameTree>> findVisitor = new JavaIsoVisitor<Set<NameTree>>() {
+            @Override
+            protected Applicability getInterest() {
+                return Applicability.types(fullyQualifiedClassName);
+            }
 
             @Override
             public <N extends NameTree> N visitTypeName(N name, Set<NameTree> ns) {
@@ -22,6 +22,7 @@ import lombok.*;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import org.openrewrite.*;
+import org.openrewrite.internal.WeakInterner;
 import org.openrewrite.internal.lang.NonNull;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaPrinter;
@@ -73,6 +74,11 @@ public interface J extends Serializable, Tree {
         return print(TreePrinter.identity(), p);
     }
 
+    @Override
+    default Fingerprint fingerprint() {
+        return JavaFingerprinter.fingerprint(this);
+    }
+
     <J2 extends J> J2 withPrefix(Space space);
 
     Space getPrefix();
@@ -92,8 +98,22 @@ public interface J extends Serializable, Tree {
         return template.withTemplate(this, coordinates, parameters);
     }
 
+    /**
+     * Queue several template edits against this tree, which are applied together by {@link JavaTemplate.Edits#apply()}.
+     * Prefer this over repeated calls to {@link #withTemplate(JavaTemplate, JavaCoordinates, Object...)} when making
+     * many edits to the same tree.
+     */
+    @Incubating(since = "7.3.0")
+    default <J2 extends J> JavaTemplate.Edits<J2> edits() {
+        //noinspection unchecked
+        return new JavaTemplate.Edits<>((J2) this);
+    }
+
     <J2 extends J> J2 withMarkers(Markers markers);
 
+    @Incubating(since = "7.3.0")
+    <J2 extends J> J2 withId(UUID id);
+
     Markers getMarkers();
 
     @SuppressWarnings("unchecked")
@@ -102,6 +122,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class AnnotatedType implements J, Expression, TypeTree {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -149,6 +170,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -237,6 +259,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class ArrayAccess implements J, Expression {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -272,6 +295,7 @@ public interface J extends Serializable, Tree {
     final class ArrayType implements J, TypeTree, Expression {
 
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -314,6 +338,7 @@ public interface J extends Serializable, Tree {
     final class Assert implements J, Statement {
 
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -348,6 +373,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -433,6 +459,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -535,6 +562,7 @@ public interface J extends Serializable, Tree {
         transient WeakReference<Padding> padding;
 
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -644,6 +672,7 @@ public interface J extends Serializable, Tree {
 
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @Getter
@@ -730,6 +759,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Break implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -766,6 +796,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -845,6 +876,7 @@ public interface J extends Serializable, Tree {
 
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -932,6 +964,11 @@ public interface J extends Serializable, Tree {
             return v.visitClassDeclaration(this, p);
         }
 
+        @Incubating(since = "7.3.0")
+        public JavaSummary getSummary() {
+            return JavaSummarizer.summarize(this);
+        }
+
         // gather annotations from everywhere they may occur
         public List<J.Annotation> getAllAnnotations() {
             List<Annotation> allAnnotations = new ArrayList<>(leadingAnnotations);
@@ -958,6 +995,7 @@ public interface J extends Serializable, Tree {
 
             @Getter
             @EqualsAndHashCode.Include
+            @With
             UUID id;
 
             @With
@@ -1086,6 +1124,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1144,6 +1183,16 @@ public interface J extends Serializable, Tree {
             return FindTypes.find(this, clazz);
         }
 
+        @Override
+        public JavaSummary getIndex() {
+            return getSummary();
+        }
+
+        @Incubating(since = "7.3.0")
+        public JavaSummary getSummary() {
+            return JavaSummarizer.summarize(this);
+        }
+
         public Padding getPadding() {
             Padding p;
             if (this.padding == null) {
@@ -1187,6 +1236,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Continue implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -1222,6 +1272,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1304,6 +1355,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Empty implements J, Statement, Expression, TypeTree {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -1339,6 +1391,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class EnumValue implements J {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -1380,6 +1433,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1454,6 +1508,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1602,6 +1657,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1648,6 +1704,7 @@ public interface J extends Serializable, Tree {
 
             @EqualsAndHashCode.Include
             @Getter
+            @With
             UUID id;
 
             @With
@@ -1766,6 +1823,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -1812,6 +1870,7 @@ public interface J extends Serializable, Tree {
 
             @EqualsAndHashCode.Include
             @Getter
+            @With
             UUID id;
 
             @With
@@ -1939,7 +1998,10 @@ public interface J extends Serializable, Tree {
     @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
     @EqualsAndHashCode(callSuper = false, onlyExplicitlyIncluded = true)
     final class Identifier implements J, TypeTree, Expression {
-        private static final Map<String, Map<JavaType, IdentifierFlyweight>> flyweights = new WeakHashMap<>();
+        /**
+         * Flyweights by simple name, with a variant for each type that an identifier of that name has.
+         */
+        private static final WeakInterner<String, IdentifierFlyweight> flyweights = new WeakInterner<>();
 
         @Getter
         @EqualsAndHashCode.Include
@@ -1995,6 +2057,13 @@ public interface J extends Serializable, Tree {
             return build(id, prefix, markers, name, getType());
         }
 
+        public Identifier withId(UUID id) {
+            if (id == this.id) {
+                return this;
+            }
+            return build(id, prefix, markers, identifier.getSimpleName(), getType());
+        }
+
         @SuppressWarnings("unchecked")
         public Identifier withMarkers(Markers markers) {
             if (markers == this.markers) {
@@ -2017,16 +2086,15 @@ public interface J extends Serializable, Tree {
                                        Markers markers,
                                        String simpleName,
                                        @Nullable JavaType type) {
-            synchronized (flyweights) {
-                return new Identifier(
-                        id,
-                        flyweights
-                                .computeIfAbsent(simpleName, n -> new HashMap<>())
-                                .computeIfAbsent(type, t -> new IdentifierFlyweight(simpleName, t)),
-                        prefix,
-                        markers
-                );
-            }
+            IdentifierFlyweight flyweight = flyweights.intern(simpleName, variants -> {
+                for (IdentifierFlyweight variant : variants) {
+                    if (Objects.equals(variant.getType(), type)) {
+                        return variant;
+                    }
+                }
+                return new IdentifierFlyweight(simpleName, type);
+            });
+            return new Identifier(id, flyweight, prefix, markers);
         }
 
         @FieldDefaults(makeFinal = true, level = AccessLevel.PRIVATE)
@@ -2058,6 +2126,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -2109,6 +2178,7 @@ public interface J extends Serializable, Tree {
 
             @EqualsAndHashCode.Include
             @Getter
+            @With
             UUID id;
 
             @With
@@ -2208,6 +2278,7 @@ public interface J extends Serializable, Tree {
 
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @Getter
@@ -2356,6 +2427,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -2436,6 +2508,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -2507,6 +2580,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Lambda implements J, Expression {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -2550,6 +2624,7 @@ public interface J extends Serializable, Tree {
 
             @EqualsAndHashCode.Include
             @Getter
+            @With
             UUID id;
 
             @With
@@ -2615,6 +2690,7 @@ public interface J extends Serializable, Tree {
     final class Literal implements J, Expression {
 
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -2689,6 +2765,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -2805,6 +2882,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3072,6 +3150,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3229,6 +3308,7 @@ public interface J extends Serializable, Tree {
         }
 
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -3281,6 +3361,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3367,6 +3448,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3451,6 +3533,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3522,6 +3605,7 @@ public interface J extends Serializable, Tree {
 
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -3647,6 +3731,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Package implements J {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -3684,6 +3769,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3776,6 +3862,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3867,6 +3954,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -3952,6 +4040,7 @@ public interface J extends Serializable, Tree {
     final class Primitive implements J, TypeTree, Expression {
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -3998,6 +4087,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Return implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4026,6 +4116,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Switch implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4056,6 +4147,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Synchronized implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4093,6 +4185,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4184,6 +4277,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class Throw implements J, Statement {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4218,6 +4312,7 @@ public interface J extends Serializable, Tree {
 
         @Getter
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4275,6 +4370,7 @@ public interface J extends Serializable, Tree {
         @Data
         public static final class Resource implements J {
             @EqualsAndHashCode.Include
+            @With
             UUID id;
 
             @With
@@ -4303,6 +4399,7 @@ public interface J extends Serializable, Tree {
         @Data
         public static final class Catch implements J {
             @EqualsAndHashCode.Include
+            @With
             UUID id;
 
             @With
@@ -4372,6 +4469,7 @@ public interface J extends Serializable, Tree {
     @Data
     final class TypeCast implements J, Expression {
         @EqualsAndHashCode.Include
+        @With
         UUID id;
 
         @With
@@ -4420,6 +4518,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4507,6 +4606,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4577,6 +4677,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4672,6 +4773,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4753,6 +4855,7 @@ public interface J extends Serializable, Tree {
 
             @EqualsAndHashCode.Include
             @Getter
+            @With
             UUID id;
 
             @With
@@ -4892,6 +4995,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -4967,6 +5071,7 @@ public interface J extends Serializable, Tree {
 
         @EqualsAndHashCode.Include
         @Getter
+        @With
         UUID id;
 
         @With
@@ -20,16 +20,17 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.With;
 import lombok.experimental.FieldDefaults;
+import org.openrewrite.internal.ChunkedList;
+import org.openrewrite.internal.ListUtils;
 import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.marker.Markers;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
 import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
 
 /**
  * A Java element that could have trailing space.
@@ -102,6 +103,10 @@ public class JRightPadded<T> {
     }
 
     public static <T> List<T> getElements(List<JRightPadded<T>> ls) {
+        if (ls instanceof ChunkedList) {
+            // keeps the chunk layout, so edits to the elements map back onto the padded list chunk by chunk
+            return ((ChunkedList<JRightPadded<T>>) ls).transform(JRightPadded::getElement);
+        }
         List<T> list = new ArrayList<>();
         for (JRightPadded<T> l : ls) {
             T elem = l.getElement();
@@ -124,21 +129,58 @@ public class JRightPadded<T> {
         return before.withElement(elements);
     }
 
+    /**
+     * Pair each of the new elements with the padding of the element with the same id in {@code before}. Edits are
+     * usually confined to a small window of the list, so the unchanged elements at either end keep their padding as
+     * is and only the window in between is matched by id. Long lists become a {@link ChunkedList} that shares
+     * everything outside the window with {@code before}.
+     *
+     * @return {@code before} if no element has changed.
+     */
     public static <J2 extends J> List<JRightPadded<J2>> withElements(List<JRightPadded<J2>> before, List<J2> elements) {
-        List<JRightPadded<J2>> after = new ArrayList<>();
-        Map<UUID, JRightPadded<J2>> beforeById = before.stream().collect(Collectors
-                .toMap(j -> j.getElement().getId(), Function.identity()));
+        int common = Math.min(before.size(), elements.size());
+        int prefix = 0;
+        while (prefix < common && before.get(prefix).getElement() == elements.get(prefix)) {
+            prefix++;
+        }
+        if (prefix == before.size() && prefix == elements.size()) {
+            return before;
+        }
+        int suffix = 0;
+        while (suffix < common - prefix &&
+                before.get(before.size() - 1 - suffix).getElement() == elements.get(elements.size() - 1 - suffix)) {
+            suffix++;
+        }
 
-        for (J2 t : elements) {
+        Map<UUID, JRightPadded<J2>> beforeById = byId(before.subList(prefix, before.size() - suffix));
+        Map<UUID, JRightPadded<J2>> allBeforeById = null;
+        List<J2> changed = elements.subList(prefix, elements.size() - suffix);
+        List<JRightPadded<J2>> window = new ArrayList<>(changed.size());
+        for (J2 t : changed) {
             JRightPadded<J2> found = beforeById.get(t.getId());
+            if (found == null && before.size() > beforeById.size()) {
+                // an element may have moved into the window from one of the unchanged ends
+                if (allBeforeById == null) {
+                    allBeforeById = byId(before);
+                }
+                found = allBeforeById.get(t.getId());
+            }
             if (found != null) {
-                after.add(found.withElement(t));
+                window.add(found.withElement(t));
             } else {
-                after.add(new JRightPadded<>(t, Space.EMPTY, Markers.EMPTY));
+                window.add(new JRightPadded<>(t, Space.EMPTY, Markers.EMPTY));
             }
         }
 
-        return after;
+        return ListUtils.replaceRange(before, prefix, before.size() - suffix, window);
+    }
+
+    private static <J2 extends J> Map<UUID, JRightPadded<J2>> byId(List<JRightPadded<J2>> ls) {
+        Map<UUID, JRightPadded<J2>> byId = new HashMap<>(ls.size() * 2);
+        for (JRightPadded<J2> padded : ls) {
+            byId.put(padded.getElement().getId(), padded);
+        }
+        return byId;
     }
 
     public static <T> JRightPadded<T> build(T element) {
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.tree;
+
+import org.openrewrite.Incubating;
+import org.openrewrite.SourceFileIndex;
+
+import java.util.Set;
+
+import static java.util.Collections.unmodifiableSet;
+
+/**
+ * A summary of the contents of a {@link J.CompilationUnit} or {@link J.ClassDeclaration}: the kinds of node it
+ * contains, the types it references, the methods it invokes or references, and the identifiers it contains. Summaries
+ * are computed on first use and cached for as long as the tree they describe is reachable.
+ * <p>
+ * Visitors use summaries to skip subtrees that cannot contain anything they would change. See
+ * {@link org.openrewrite.java.JavaVisitor#getInterest()}.
+ */
+@Incubating(since = "7.3.0")
+public class JavaSummary extends SourceFileIndex {
+    private final Set<Class<? extends J>> kinds;
+
+    public JavaSummary(Set<Class<? extends J>> kinds, Set<String> types, Set<String> methodNames, Set<String> tokens) {
+        super(types, methodNames, tokens);
+        this.kinds = unmodifiableSet(kinds);
+    }
+
+    /**
+     * @return The classes of the nodes in the summarized tree, including the summarized tree itself.
+     */
+    public Set<Class<? extends J>> getKinds() {
+        return kinds;
+    }
+
+    /**
+     * @param kind A class or interface of node, e.g. {@link J.MethodInvocation} or {@link Statement}.
+     * @return Whether the summarized tree contains any node of this kind.
+     */
+    public boolean contains(Class<? extends J> kind) {
+        if (kinds.contains(kind)) {
+            return true;
+        }
+        for (Class<? extends J> k : kinds) {
+            if (kind.isAssignableFrom(k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.annotation.JsonIdentityInfo;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.ObjectIdGenerators;
 import lombok.*;
+import org.openrewrite.internal.WeakInterner;
 import org.openrewrite.internal.lang.Nullable;
 
 import java.io.Serializable;
@@ -130,7 +131,7 @@ public interface JavaType extends Serializable {
     @Getter
     class Class extends FullyQualified {
         // there shouldn't be too many distinct types represented by the same fully qualified name
-        private static final Map<String, Set<Class>> flyweights = new WeakHashMap<>();
+        private static final WeakInterner<String, Class> flyweights = new WeakInterner<>();
 
         public static final Class OBJECT = build("java.lang.Object");
 
@@ -276,33 +277,26 @@ public interface JavaType extends Serializable {
             // equality is determined by comparing the immediate structure of the class and also comparing the supertype
             // hierarchies.
 
-            synchronized (flyweights) {
-                Set<JavaType.Class> variants = flyweights.computeIfAbsent(candidate.flyweightId, fqn -> new HashSet<>());
-
+            return flyweights.intern(candidate.flyweightId, variants -> {
                 if (relaxedClassTypeMatching) {
-                    if (variants.isEmpty()) {
-                        variants.add(candidate);
-                        return candidate;
+                    return variants.isEmpty() ? candidate : variants.get(0);
+                }
+
+                for (Class v : variants) {
+                    if (v.deepEquals(candidate)) {
+                        return v;
                     }
-                    return variants.iterator().next();
-                } else {
+                }
+
+                if (candidate.supertype == null) {
                     for (Class v : variants) {
-                        if (v.deepEquals(candidate)) {
+                        if (v.supertype != null) {
                             return v;
                         }
                     }
-
-                    if (candidate.supertype == null) {
-
-                        return variants.stream().filter(v -> v.supertype != null).findFirst().orElseGet(() -> {
-                            variants.add(candidate);
-                            return candidate;
-                        });
-                    }
-                    variants.add(candidate);
-                    return candidate;
                 }
-            }
+                return candidate;
+            });
         }
 
         /**
@@ -318,7 +312,7 @@ public interface JavaType extends Serializable {
                 return constructorsTemp;
             }
 
-            synchronized (flyweights) {
+            synchronized (this) {
                 //Double checked locking.
                 constructorsTemp = constructors;
                 if (constructorsTemp != null) {
@@ -487,7 +481,7 @@ public interface JavaType extends Serializable {
 
     @Getter
     class Method implements JavaType {
-        private static final Map<FullyQualified, Map<String, Set<Method>>> flyweights = new WeakHashMap<>();
+        private static final WeakInterner<List<Object>, Method> flyweights = new WeakInterner<>();
 
         private final FullyQualified declaringType;
         private final String name;
@@ -518,20 +512,14 @@ public interface JavaType extends Serializable {
 
             Method test = new Method(declaringType, name, genericSignature, resolvedSignature, paramNames, flagsBitMap);
 
-            synchronized (flyweights) {
-                Set<Method> methods = flyweights
-                        .computeIfAbsent(declaringType, dt -> new HashMap<>())
-                        .computeIfAbsent(name, n -> new HashSet<>());
-
-                return methods
-                        .stream()
-                        .filter(m -> m.deepEquals(test))
-                        .findAny()
-                        .orElseGet(() -> {
-                            methods.add(test);
-                            return test;
-                        });
-            }
+            return flyweights.intern(Arrays.asList(declaringType, name), methods -> {
+                for (Method m : methods) {
+                    if (m.deepEquals(test)) {
+                        return m;
+                    }
+                }
+                return test;
+            });
         }
 
         @Data
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import io.micrometer.core.instrument.Metrics
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.ExecutionContext
+import org.openrewrite.Recipe
+import org.openrewrite.Result
+import org.openrewrite.java.tree.J
+
+class FusedRecipeTest {
+    private val sources = JavaParser.fromJavaVersion().build().parse(
+        """
+            class A {
+                int a = 1;
+                void m() {
+                    int x = a + a;
+                    class Local {
+                        int y = a;
+                    }
+                }
+            }
+        """.trimIndent(),
+        """
+            class Delete {
+            }
+        """.trimIndent()
+    )
+
+    private fun recipe(name: String, fusible: Boolean, visitor: () -> JavaVisitor<ExecutionContext>) = object : Recipe() {
+        override fun getName() = name
+        override fun getDisplayName() = name
+        override fun isFusible() = fusible
+        override fun getVisitor() = visitor()
+    }
+
+    private class Rename(val from: String, val to: String) : JavaIsoVisitor<ExecutionContext>() {
+        override fun visitIdentifier(identifier: J.Identifier, p: ExecutionContext): J.Identifier {
+            val i = super.visitIdentifier(identifier, p)
+            return if (i.simpleName == from) i.withName(to) else i
+        }
+    }
+
+    private fun containsIdentifier(tree: J, name: String): Boolean {
+        var found = false
+        object : JavaIsoVisitor<Int>() {
+            override fun visitIdentifier(identifier: J.Identifier, p: Int): J.Identifier {
+                found = found || identifier.simpleName == name
+                return identifier
+            }
+        }.visit(tree, 0)
+        return found
+    }
+
+    private fun composite(fusible: Boolean): Recipe = object : Recipe() {
+        override fun getDisplayName() = "Composite"
+    }
+        .doNext(recipe("test.AtoB", fusible) { Rename("a", "b") })
+        .doNext(recipe("test.BtoC", fusible) { Rename("b", "c") })
+        // only sees the renamed identifiers of the method body if the body is visited before the method
+        .doNext(recipe("test.RenameMethod", fusible) {
+            object : JavaIsoVisitor<ExecutionContext>() {
+                override fun visitMethodDeclaration(method: J.MethodDeclaration, p: ExecutionContext): J.MethodDeclaration {
+                    val m = super.visitMethodDeclaration(method, p)
+                    return if (m.body != null && containsIdentifier(m.body!!, "c"))
+                        m.withName(m.name.withName("usesC")) else m
+                }
+            }
+        })
+        // the second rename only applies if it runs after the first
+        .doNext(recipe("test.AfterVisitFirst", fusible) {
+            object : JavaVisitor<ExecutionContext>() {
+                override fun visitCompilationUnit(cu: J.CompilationUnit, p: ExecutionContext): J {
+                    doAfterVisit(Rename("A", "Renamed"))
+                    return super.visitCompilationUnit(cu, p)
+                }
+            }
+        })
+        .doNext(recipe("test.AfterVisitSecond", fusible) {
+            object : JavaVisitor<ExecutionContext>() {
+                override fun visitCompilationUnit(cu: J.CompilationUnit, p: ExecutionContext): J {
+                    doAfterVisit(Rename("Renamed", "Final"))
+                    return super.visitCompilationUnit(cu, p)
+                }
+            }
+        })
+        .doNext(recipe("test.Delete", fusible) {
+            object : JavaVisitor<ExecutionContext>() {
+                override fun visitCompilationUnit(cu: J.CompilationUnit, p: ExecutionContext): J? =
+                    if (cu.classes.any { it.simpleName == "Delete" }) null else super.visitCompilationUnit(cu, p)
+            }
+        })
+
+    private fun summarize(results: List<Result>) = results
+        .map { result ->
+            listOf(
+                result.before?.sourcePath,
+                result.after?.print(),
+                result.recipesThatMadeChanges.map { it.name }.sorted()
+            )
+        }
+        .sortedBy { it[0].toString() }
+
+    @Test
+    fun fusedRecipesMatchSequentialRecipesOnNestedTrees() {
+        val sequential = composite(false).run(sources)
+
+        val registry = SimpleMeterRegistry()
+        Metrics.globalRegistry.add(registry)
+        val fused = try {
+            composite(true).run(sources)
+        } finally {
+            Metrics.globalRegistry.remove(registry)
+        }
+
+        assertThat(summarize(fused)).isEqualTo(summarize(sequential))
+
+        val changed = fused.first { it.after != null }
+        assertThat(changed.after!!.print()).isEqualTo(
+            """
+                class Final {
+                    int c = 1;
+                    void usesC() {
+                        int x = c + c;
+                        class Local {
+                            int y = c;
+                        }
+                    }
+                }
+            """.trimIndent()
+        )
+        assertThat(changed.recipesThatMadeChanges.map { it.name }).containsExactlyInAnyOrder(
+            "test.AtoB", "test.BtoC", "test.RenameMethod", "test.AfterVisitFirst", "test.AfterVisitSecond"
+        )
+
+        val deleted = fused.first { it.after == null }
+        assertThat(deleted.recipesThatMadeChanges.map { it.name }).containsExactly("test.Delete")
+
+        for (name in listOf("test.AtoB", "test.BtoC", "test.RenameMethod", "test.Delete")) {
+            assertThat(registry.find("rewrite.recipe.visit").tag("recipe", name).timers())
+                .describedAs("visit timers of $name")
+                .isNotEmpty
+        }
+    }
+}
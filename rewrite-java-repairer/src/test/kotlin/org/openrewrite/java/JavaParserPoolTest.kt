@@ -0,0 +1,40 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.InMemoryExecutionContext
+
+class JavaParserPoolTest {
+    @Test
+    fun contextWithoutAPoolOfItsOwnUsesTheDefaultPool() {
+        val ctx = InMemoryExecutionContext()
+        assertThat(JavaParserPool.forContext(ctx)).isSameAs(JavaParserPool.getDefault())
+        // looking up the pool mustn't put a message in the context, which would make a running recipe cycle again
+        assertThat(ctx.getMessage<Any>(JavaParserPool::class.java.name)).isNull()
+    }
+
+    @Test
+    fun poolOpenedForAContextIsClosedWithIt() {
+        val ctx = InMemoryExecutionContext()
+        val pool = JavaParserPool.openForContext(ctx)
+        assertThat(JavaParserPool.forContext(ctx)).isSameAs(pool)
+
+        JavaParserPool.close(ctx)
+        assertThat(JavaParserPool.forContext(ctx)).isSameAs(JavaParserPool.getDefault())
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
+import org.openrewrite.java.tree.Statement
+
+class JavaTemplateEditsTest {
+    private val parser = JavaParser.fromJavaVersion().build()
+
+    private fun parse(source: String): J.CompilationUnit {
+        parser.reset()
+        return parser.parse(source)[0]
+    }
+
+    private fun methodInvocations(tree: J): List<J.MethodInvocation> {
+        val found = mutableListOf<J.MethodInvocation>()
+        object : JavaIsoVisitor<Int>() {
+            override fun visitMethodInvocation(method: J.MethodInvocation, p: Int): J.MethodInvocation {
+                found.add(method)
+                return super.visitMethodInvocation(method, p)
+            }
+        }.visit(tree, 0)
+        return found
+    }
+
+    @Test
+    fun editsInSeveralMethodsAreEachAttributed() {
+        val cu = parse(
+            """
+                class A {
+                    void first() {
+                    }
+                    void second() {
+                    }
+                }
+            """.trimIndent()
+        )
+
+        val after = object : JavaIsoVisitor<Int>() {
+            override fun visitClassDeclaration(classDecl: J.ClassDeclaration, p: Int): J.ClassDeclaration {
+                val c = super.visitClassDeclaration(classDecl, p)
+                val print = template("System.out.println(\"#{}\");").build()
+                val edits = c.edits<J.ClassDeclaration>()
+                for (statement in c.body.statements) {
+                    val method = statement as J.MethodDeclaration
+                    edits.withTemplate(print, method.body!!.coordinates.lastStatement(), method.simpleName)
+                }
+                return edits.apply()
+            }
+        }.visit(cu, 0) as J.CompilationUnit
+
+        assertThat(after.print()).isEqualTo(
+            """
+                class A {
+                    void first() {
+                        System.out.println("first");
+                    }
+                    void second() {
+                        System.out.println("second");
+                    }
+                }
+            """.trimIndent()
+        )
+
+        // each synthetic source is compiled on its own, so none of them is discarded as a duplicate class
+        val invocations = methodInvocations(after)
+        assertThat(invocations).hasSize(2)
+        assertThat(invocations).allSatisfy { assertThat(it.type).isNotNull }
+    }
+
+    @Test
+    fun annotationInsertedBeforeAnotherOnMethodAndVariableDeclarations() {
+        val cu = parse(
+            """
+                class A {
+                    @Deprecated
+                    int field;
+
+                    @Deprecated
+                    void method() {
+                    }
+                }
+            """.trimIndent()
+        )
+
+        val after = object : JavaIsoVisitor<Int>() {
+            val suppress = template("@SuppressWarnings(\"all\")").build()
+
+            override fun visitMethodDeclaration(method: J.MethodDeclaration, p: Int): J.MethodDeclaration {
+                val m = super.visitMethodDeclaration(method, p)
+                return m.withTemplate(suppress, m.leadingAnnotations[0].coordinates.before())
+            }
+
+            override fun visitVariableDeclarations(multiVariable: J.VariableDeclarations, p: Int): J.VariableDeclarations {
+                val v = super.visitVariableDeclarations(multiVariable, p)
+                return v.withTemplate(suppress, v.leadingAnnotations[0].coordinates.before())
+            }
+        }.visit(cu, 0) as J.CompilationUnit
+
+        val statements: List<Statement> = after.classes[0].body.statements
+        val field = statements[0] as J.VariableDeclarations
+        val method = statements[1] as J.MethodDeclaration
+        assertThat(field.leadingAnnotations.map { it.simpleName }).containsExactly("SuppressWarnings", "Deprecated")
+        assertThat(method.leadingAnnotations.map { it.simpleName }).containsExactly("SuppressWarnings", "Deprecated")
+        assertThat(after.print())
+            .contains("    @SuppressWarnings(\"all\")\n    @Deprecated\n    int field;")
+            .contains("    @SuppressWarnings(\"all\")\n    @Deprecated\n    void method() {")
+    }
+
+    @Test
+    fun snippetsAreReusedAtInsertionPointsWithTheSameDeclarationsInScope() {
+        val cu = parse(
+            """
+                class A {
+                    void first(String s) {
+                        foo();
+                    }
+                    void second(String s) {
+                        foo();
+                        foo();
+                    }
+                    void third(Integer s) {
+                    }
+                    void foo() {
+                    }
+                }
+            """.trimIndent()
+        )
+
+        var compiled = 0
+        val after = object : JavaIsoVisitor<Int>() {
+            val print = template("System.out.println(s);")
+                .parserPool(JavaParserPool { JavaParser.fromJavaVersion().build() })
+                .doBeforeParseTemplate { compiled++ }
+                .build()
+
+            override fun visitMethodDeclaration(method: J.MethodDeclaration, p: Int): J.MethodDeclaration {
+                val m = super.visitMethodDeclaration(method, p)
+                return if (m.simpleName == "foo") m else m.withTemplate(print, m.body!!.coordinates.lastStatement())
+            }
+        }.visit(cu, 0) as J.CompilationUnit
+
+        // the first two methods only differ in statements that declare nothing, so they share one compilation
+        assertThat(compiled).isEqualTo(2)
+
+        val printlnParameterTypes = methodInvocations(after)
+            .filter { it.simpleName == "println" }
+            .map { (it.type!!.resolvedSignature!!.paramTypes[0] as JavaType.FullyQualified).fullyQualifiedName }
+        assertThat(printlnParameterTypes).containsExactly("java.lang.String", "java.lang.String", "java.lang.Object")
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.java.tree.Expression
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JavaType
+
+class JavaTemplateMinimalContextTest {
+    private val parser = JavaParser.fromJavaVersion().build()
+
+    private val source = """
+        class A {
+            String field;
+
+            class Inner {
+                Integer innerField;
+
+                void m(Long param) {
+                    class Local {
+                        Short value() {
+                            return 0;
+                        }
+                    }
+                    Local local = new Local();
+                    Nested nested = new Nested();
+                    // a comment
+                    System.out.println("not a declaration");
+                }
+            }
+
+            static class Nested {
+                Double value() {
+                    return 0.0;
+                }
+            }
+        }
+
+        class Other {
+            Float otherField;
+        }
+    """.trimIndent()
+
+    private fun typeName(e: Expression?): String? = when (e) {
+        is J.MethodInvocation -> (e.type?.resolvedSignature?.returnType as? JavaType.FullyQualified)?.fullyQualifiedName
+        else -> (e?.type as? JavaType.FullyQualified)?.fullyQualifiedName
+    }
+
+    private fun applyInM(template: JavaTemplate): J.CompilationUnit {
+        parser.reset()
+        return object : JavaIsoVisitor<Int>() {
+            override fun visitMethodDeclaration(method: J.MethodDeclaration, p: Int): J.MethodDeclaration {
+                val m = super.visitMethodDeclaration(method, p)
+                return if (m.simpleName == "m") m.withTemplate(template, m.body!!.coordinates.lastStatement()) else m
+            }
+        }.visit(parser.parse(source)[0], 0) as J.CompilationUnit
+    }
+
+    @Test
+    fun attributesLocalsNestedClassesAndFieldsOfEnclosingClasses() {
+        var generated = ""
+        val after = applyInM(
+            template(
+                """
+                    String a = field;
+                    Integer b = innerField;
+                    Long c = param;
+                    Short d = local.value();
+                    Double e = nested.value();
+                """.trimIndent()
+            )
+                .minimalContext(true)
+                .doBeforeParseTemplate { generated = it }
+                .build()
+        )
+
+        val initializerTypes = mutableMapOf<String, String?>()
+        object : JavaIsoVisitor<Int>() {
+            override fun visitVariable(variable: J.VariableDeclarations.NamedVariable, p: Int): J.VariableDeclarations.NamedVariable {
+                initializerTypes[variable.simpleName] = typeName(variable.initializer)
+                return variable
+            }
+        }.visit(after, 0)
+
+        assertThat(initializerTypes)
+            .containsEntry("a", "java.lang.String")
+            .containsEntry("b", "java.lang.Integer")
+            .containsEntry("c", "java.lang.Long")
+            .containsEntry("d", "java.lang.Short")
+            .containsEntry("e", "java.lang.Double")
+        assertThat(generated)
+            .doesNotContain("otherField")
+            .doesNotContain("not a declaration")
+            .doesNotContain("a comment")
+    }
+
+    @Test
+    fun minimalContextIsSmallerThanTheFullContext() {
+        fun generatedSource(minimalContext: Boolean): String {
+            var generated = ""
+            applyInM(
+                template("System.out.println(param);")
+                    .minimalContext(minimalContext)
+                    .doBeforeParseTemplate { generated = it }
+                    .build()
+            )
+            return generated
+        }
+
+        val full = generatedSource(false)
+        val minimal = generatedSource(true)
+        assertThat(full).contains("otherField").contains("not a declaration")
+        assertThat(minimal).isNotEmpty
+        assertThat(minimal.length).isLessThan(full.length)
+    }
+}
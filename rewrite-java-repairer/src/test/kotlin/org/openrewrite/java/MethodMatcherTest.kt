@@ -0,0 +1,126 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.java.tree.Flag
+import org.openrewrite.java.tree.JavaType
+
+class MethodMatcherTest {
+    private val string = JavaType.Class.build("java.lang.String")
+    private val int = JavaType.Primitive.Int
+
+    private fun type(fqn: String, supertype: JavaType.Class? = null) = JavaType.Class.build(
+        fqn, emptySet<Flag>(), JavaType.Class.Kind.Class, emptyList(), emptyList(), emptyList(), emptyList(),
+        supertype, null
+    )
+
+    private fun method(declaringType: JavaType.FullyQualified, name: String, vararg params: JavaType): JavaType.Method {
+        val signature = JavaType.Method.Signature(JavaType.Primitive.Void, params.toList())
+        return JavaType.Method.build(declaringType, name, signature, signature,
+            params.indices.map { "p$it" }, emptySet<Flag>())
+    }
+
+    @Test
+    fun dotDotMatchesAnyNumberOfArguments() {
+        val a = type("org.openrewrite.matcher.A")
+        val anyArgs = MethodMatcher("org.openrewrite.matcher.A foo(..)")
+        assertThat(anyArgs.matches(method(a, "foo"))).isTrue()
+        assertThat(anyArgs.matches(method(a, "foo", int))).isTrue()
+        assertThat(anyArgs.matches(method(a, "foo", int, string, int))).isTrue()
+
+        val leading = MethodMatcher("org.openrewrite.matcher.A foo(int, ..)")
+        assertThat(leading.matches(method(a, "foo", int))).isTrue()
+        assertThat(leading.matches(method(a, "foo", int, string))).isTrue()
+        assertThat(leading.matches(method(a, "foo", string, int))).isFalse()
+        assertThat(leading.matches(method(a, "foo"))).isFalse()
+
+        val trailing = MethodMatcher("org.openrewrite.matcher.A foo(.., String)")
+        assertThat(trailing.matches(method(a, "foo", string))).isTrue()
+        assertThat(trailing.matches(method(a, "foo", int, int, string))).isTrue()
+        assertThat(trailing.matches(method(a, "foo", string, int))).isFalse()
+
+        val around = MethodMatcher("org.openrewrite.matcher.A foo(int, .., String)")
+        assertThat(around.matches(method(a, "foo", int, string))).isTrue()
+        assertThat(around.matches(method(a, "foo", int, int, string))).isTrue()
+        assertThat(around.matches(method(a, "foo", int))).isFalse()
+    }
+
+    @Test
+    fun varargsMatchArrayParameters() {
+        val a = type("org.openrewrite.matcher.A")
+        val matcher = MethodMatcher("org.openrewrite.matcher.A foo(int, String...)")
+        assertThat(matcher.matches(method(a, "foo", int, JavaType.Array(string)))).isTrue()
+        assertThat(matcher.matches(method(a, "foo", int, string))).isFalse()
+        assertThat(MethodMatcher("org.openrewrite.matcher.A foo(String[])")
+            .matches(method(a, "foo", JavaType.Array(string)))).isTrue()
+    }
+
+    @Test
+    fun wildcardParameterMatchesExactlyOneArgument() {
+        val a = type("org.openrewrite.matcher.A")
+        val matcher = MethodMatcher("org.openrewrite.matcher.A foo(*)")
+        assertThat(matcher.matches(method(a, "foo", int))).isTrue()
+        assertThat(matcher.matches(method(a, "foo", string))).isTrue()
+        assertThat(matcher.matches(method(a, "foo"))).isFalse()
+        assertThat(matcher.matches(method(a, "foo", int, int))).isFalse()
+    }
+
+    @Test
+    fun wildcardNames() {
+        val collections = type("java.util.Collections")
+        val matcher = MethodMatcher("java.util.* unmodifiable*(..)")
+        assertThat(matcher.matches(method(collections, "unmodifiableList"))).isTrue()
+        assertThat(matcher.matches(method(collections, "emptyList"))).isFalse()
+        assertThat(matcher.matches(method(type("java.util.concurrent.Executors"), "unmodifiableList"))).isFalse()
+    }
+
+    @Test
+    fun dollarSignInTypeNameIsLiteral() {
+        val inner = type("org.openrewrite.matcher.Outer\$Inner")
+        assertThat(MethodMatcher("org.openrewrite.matcher.Outer\$Inner foo()").matches(method(inner, "foo"))).isTrue()
+        assertThat(MethodMatcher("org.openrewrite.matcher.Outer\$Inner foo()")
+            .matches(method(type("org.openrewrite.matcher.OuterXInner"), "foo"))).isFalse()
+    }
+
+    @Test
+    fun targetTypeMatchesSupertypes() {
+        val base = type("org.openrewrite.matcher.Base")
+        val sub = type("org.openrewrite.matcher.Sub", base)
+        val other = type("org.openrewrite.matcher.Other")
+
+        val matcher = MethodMatcher("org.openrewrite.matcher.Base foo()")
+        assertThat(matcher.matches(method(sub, "foo"))).isTrue()
+        assertThat(matcher.matches(method(other, "foo"))).isFalse()
+        assertThat(MethodMatcher("java.lang.Object hashCode()").matches(method(other, "hashCode"))).isTrue()
+    }
+
+    @Test
+    fun targetTypeVerdictsAreMemoizedPerTypeInstance() {
+        val base = type("org.openrewrite.matcher.MemoBase")
+        val sub = type("org.openrewrite.matcher.MemoSub", base)
+        // the same name with a different supertype is a distinct type, which must get a verdict of its own
+        val unrelatedSub = type("org.openrewrite.matcher.MemoSub", type("org.openrewrite.matcher.MemoOther"))
+
+        val matcher = MethodMatcher("org.openrewrite.matcher.MemoBase *(..)")
+        repeat(2) {
+            assertThat(matcher.matchesTargetType(sub)).isTrue()
+            assertThat(matcher.matchesTargetType(base)).isTrue()
+            assertThat(matcher.matchesTargetType(unrelatedSub)).isFalse()
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.cleanup
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.java.JavaParser
+
+class SimplifyBooleanReturnTest {
+    private val parser = JavaParser.fromJavaVersion().build()
+
+    @Test
+    fun negatesACompoundConditionWithinASinglePairOfParentheses() {
+        val cu = parser.parse(
+            """
+                class A {
+                    boolean m(boolean a, boolean b) {
+                        if (a && b) {
+                            return false;
+                        }
+                        return true;
+                    }
+                }
+            """.trimIndent()
+        )
+
+        val results = SimplifyBooleanReturn().run(cu)
+
+        assertThat(results).hasSize(1)
+        assertThat(results[0].after!!.print())
+            .contains("return !(a && b);")
+            .doesNotContain("return true;")
+    }
+}
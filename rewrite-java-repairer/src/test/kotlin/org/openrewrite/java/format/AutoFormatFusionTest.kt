@@ -0,0 +1,120 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.format
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Cursor
+import org.openrewrite.java.JavaIsoVisitor
+import org.openrewrite.java.JavaParser
+import org.openrewrite.java.tree.J
+
+/**
+ * Normalizing whitespace in one fused traversal must give the same result as applying each rule in a traversal of its
+ * own, for every declaration of a corpus that exercises a variety of constructs and badly formatted whitespace.
+ */
+class AutoFormatFusionTest {
+    private val corpus = listOf(
+        """
+            package org.openrewrite.format;
+            import java.util.*;
+            import java.util.function.Function;
+            public class Generics<T extends Comparable<T>>   implements Comparable<Generics<T>> {
+                @Deprecated   public static <T>   List<T>method(int n,T t)   {  
+                    List<T> l=new ArrayList<>();
+
+
+
+                    for(int i=0;i<n;i++){l.add(t);}   
+                    if (n > 0) { return l; } else {
+                        return Collections.emptyList();
+                    }
+                }
+                public int compareTo( Generics<T> o ){return 0;}
+                <R> R map(Function< ? super T,? extends R > f,T t){ return f.apply( t ); }
+            }
+        """.trimIndent(),
+        """
+            package org.openrewrite.format;
+            import java.io.*;
+            class Control{
+            	void loops(int[] a)throws IOException{
+            		int i=0;while(i<a.length){i++;}
+            		do{i--;}while(i>0);
+            		for(int x:a){ if(x>1)continue;else break; }
+            		switch(i){case 0:i++;break;default:{i--;}}
+            		try(InputStream in=new ByteArrayInputStream(new byte[0])){in.read();}catch(IOException|RuntimeException e){throw e;}finally{i=0;}
+            		label:for(;;){break label;}
+            		synchronized(this){i+=a.length>0?a[0]:-1;}
+            	}
+            }
+        """.trimIndent(),
+        """
+            package org.openrewrite.format;
+            import java.util.*;
+            import java.util.function.*;
+            public class Lambdas {
+                  // a comment   
+                Runnable r = ()->{ System.out.println( "r" ); } ;
+                Supplier<List<String>> s=ArrayList::new;
+                Comparator<String> c = new Comparator<String>(){
+                    @Override public int compare(String a,String b){return a.compareTo(b);}
+                };
+                /**
+                 * Javadoc   
+                 */
+                int[][] grid = new int[ 2 ][ ];
+                Object cast(Object o){ return (String)o instanceof String ? o : null; }
+                enum Color{ RED , GREEN,BLUE; Color next(){ return values()[ (ordinal()+1)%values().length ]; } }
+                @interface Marker{ String value() default "x"; }
+                interface Shape{ double area(); default String name(){return "shape";} }
+            }
+        """.trimIndent()
+    )
+
+    @Test
+    fun fusedNormalizationMatchesOneRuleAtATime() {
+        val cus = JavaParser.fromJavaVersion().build().parse(*corpus.toTypedArray())
+        assertThat(cus).hasSize(corpus.size)
+
+        val declarations = mutableListOf<Pair<J, Cursor>>()
+        for (cu in cus) {
+            object : JavaIsoVisitor<Int>() {
+                override fun visitClassDeclaration(classDecl: J.ClassDeclaration, p: Int): J.ClassDeclaration {
+                    declarations.add(classDecl to cursor.parentOrThrow)
+                    return super.visitClassDeclaration(classDecl, p)
+                }
+
+                override fun visitMethodDeclaration(method: J.MethodDeclaration, p: Int): J.MethodDeclaration {
+                    declarations.add(method to cursor.parentOrThrow)
+                    return super.visitMethodDeclaration(method, p)
+                }
+
+                override fun visitVariableDeclarations(multiVariable: J.VariableDeclarations, p: Int): J.VariableDeclarations {
+                    declarations.add(multiVariable to cursor.parentOrThrow)
+                    return super.visitVariableDeclarations(multiVariable, p)
+                }
+            }.visit(cu, 0)
+        }
+        assertThat(declarations).hasSizeGreaterThan(20)
+
+        for ((declaration, parent) in declarations) {
+            val fused = AutoFormatVisitor<Int>(null, true).visit(declaration, 0, parent).print()
+            val reference = AutoFormatVisitor<Int>(null, false).visit(declaration, 0, parent).print()
+            assertThat(fused).`as`("formatting\n%s", declaration.print()).isEqualTo(reference)
+        }
+    }
+}
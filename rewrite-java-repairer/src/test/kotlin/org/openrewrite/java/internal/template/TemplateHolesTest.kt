@@ -0,0 +1,128 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.internal.template
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.java.JavaIsoVisitor
+import org.openrewrite.java.JavaParser
+import org.openrewrite.java.tree.Expression
+import org.openrewrite.java.tree.J
+import org.openrewrite.java.tree.JRightPadded
+import org.openrewrite.java.tree.Space
+import org.openrewrite.marker.Markers
+
+class TemplateHolesTest {
+    private val parser = JavaParser.fromJavaVersion().build()
+
+    private fun doubleInitializers(source: String): J.CompilationUnit {
+        parser.reset()
+        val cu = parser.parse(source)[0]
+        return object : JavaIsoVisitor<Int>() {
+            val doubled = template("#{any(int)} * 2").build()
+
+            override fun visitVariable(variable: J.VariableDeclarations.NamedVariable, p: Int): J.VariableDeclarations.NamedVariable {
+                val v = super.visitVariable(variable, p)
+                val initializer = v.initializer ?: return v
+                return v.withInitializer(initializer.withTemplate<Expression>(doubled, initializer.coordinates.replace(), initializer))
+            }
+        }.visit(cu, 0) as J.CompilationUnit
+    }
+
+    @Test
+    fun placeholderIsACastOfADefaultValue() {
+        assertThat(TemplateHoles.placeholder(0, "int")).isEqualTo("((int) /*__hole0__*/0)")
+        assertThat(TemplateHoles.placeholder(1, "boolean")).isEqualTo("((boolean) /*__hole1__*/false)")
+        assertThat(TemplateHoles.placeholder(2, "java.util.List<java.lang.String>"))
+            .isEqualTo("((java.util.List<java.lang.String>) /*__hole2__*/null)")
+    }
+
+    @Test
+    fun operationKeepsTheHolesParentheses() {
+        val after = doubleInitializers(
+            """
+                class A {
+                    void m(int a, int b) {
+                        int x = a + b;
+                    }
+                }
+            """.trimIndent()
+        )
+
+        assertThat(after.print()).contains("int x = (a + b) * 2;")
+        val x = after.classes[0].body.statements[0].let { it as J.MethodDeclaration }.body!!.statements[0]
+        val initializer = (x as J.VariableDeclarations).variables[0].initializer as J.Binary
+        assertThat(initializer.left).isInstanceOf(J.Parentheses::class.java)
+    }
+
+    @Test
+    fun holeWithinTheTemplatesOwnParenthesesIsNotParenthesizedAgain() {
+        parser.reset()
+        val cu = parser.parse(
+            """
+                class A {
+                    boolean m(boolean a, boolean b) {
+                        return a && b;
+                    }
+                }
+            """.trimIndent()
+        )[0]
+
+        val after = object : JavaIsoVisitor<Int>() {
+            val negated = template("!(#{any(boolean)})").build()
+
+            override fun visitReturn(_return: J.Return, p: Int): J.Return {
+                val r = super.visitReturn(_return, p)
+                val expression = r.expression ?: return r
+                return r.withExpression(expression.withTemplate<Expression>(negated, expression.coordinates.replace(), expression))
+            }
+        }.visit(cu, 0) as J.CompilationUnit
+
+        assertThat(after.print()).contains("return !(a && b);")
+    }
+
+    @Test
+    fun primaryExpressionReplacesTheHoleWithoutParentheses() {
+        val after = doubleInitializers(
+            """
+                class A {
+                    int field;
+                    void m(int a) {
+                        int x = a;
+                        int y = Math.abs(a);
+                        int z = this.field;
+                        int w = (a);
+                    }
+                }
+            """.trimIndent()
+        )
+
+        assertThat(after.print())
+            .contains("int x = a * 2;")
+            .contains("int y = Math.abs(a) * 2;")
+            .contains("int z = this.field * 2;")
+            .contains("int w = (a) * 2;")
+    }
+
+    @Test
+    fun onlyTreesAreGrafted() {
+        val identifier = J.Identifier.build(randomId(), Space.EMPTY, Markers.EMPTY, "a", null)
+        assertThat(TemplateHoles.graftable(identifier)).isSameAs(identifier)
+        assertThat(TemplateHoles.graftable(JRightPadded.build(identifier))).isSameAs(identifier)
+        assertThat(TemplateHoles.graftable("a")).isNull()
+    }
+}
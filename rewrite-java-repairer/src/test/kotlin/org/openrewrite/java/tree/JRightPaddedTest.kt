@@ -0,0 +1,104 @@
+/*
+ * Copyright 2020 the original author or authors.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openrewrite.java.tree
+
+import org.assertj.core.api.Assertions.assertThat
+import org.junit.jupiter.api.Test
+import org.openrewrite.Tree.randomId
+import org.openrewrite.internal.ChunkedList
+import org.openrewrite.marker.Markers
+
+class JRightPaddedTest {
+    private fun identifiers(count: Int) = (0 until count).map {
+        J.Identifier.build(randomId(), Space.EMPTY, Markers.EMPTY, "i$it", null)
+    }
+
+    private fun padded(elements: List<J.Identifier>) =
+        elements.mapIndexed { i, e -> JRightPadded(e, Space.build(" ".repeat(i + 1), emptyList()), Markers.EMPTY) }
+
+    private fun afterOf(ls: List<JRightPadded<J.Identifier>>) = ls.map { it.after.whitespace }
+
+    @Test
+    fun unchangedElementsReturnTheSameList() {
+        val before = padded(identifiers(5))
+        assertThat(JRightPadded.withElements(before, JRightPadded.getElements(before))).isSameAs(before)
+    }
+
+    @Test
+    fun elementsMovedWithinTheWindowKeepTheirPadding() {
+        val elements = identifiers(5)
+        val before = padded(elements)
+        val (a, b, c, d, e) = elements
+
+        val after = JRightPadded.withElements(before, listOf(a, c, b, d, e))
+
+        assertThat(after.map { it.element }).containsExactly(a, c, b, d, e)
+        assertThat(afterOf(after)).containsExactly(" ", "   ", "  ", "    ", "     ")
+    }
+
+    @Test
+    fun elementMovedOutOfTheWindowToAnEnd() {
+        val elements = identifiers(5)
+        val before = padded(elements)
+        val (a, b, c, d, e) = elements
+
+        val after = JRightPadded.withElements(before, listOf(a, c, d, e, b))
+
+        assertThat(after.map { it.element }).containsExactly(a, c, d, e, b)
+        assertThat(afterOf(after)).containsExactly(" ", "   ", "    ", "     ", "  ")
+    }
+
+    @Test
+    fun elementMovedIntoTheWindowFromAnUnchangedEnd() {
+        val elements = identifiers(5)
+        val before = padded(elements)
+        val (a, b, c, d, e) = elements
+        val changedE = e.withName("changed")
+
+        // e is still the last element, so it is part of the unchanged suffix, while its changed copy is in the window
+        val after = JRightPadded.withElements(before, listOf(a, changedE, b, c, d, e))
+
+        assertThat(after.map { it.element }).containsExactly(a, changedE, b, c, d, e)
+        assertThat(afterOf(after)).containsExactly(" ", "     ", "  ", "   ", "    ", "     ")
+    }
+
+    @Test
+    fun newAndRemovedElements() {
+        val elements = identifiers(5)
+        val before = padded(elements)
+        val (a, b, _, d, e) = elements
+        val added = identifiers(1)[0]
+
+        val after = JRightPadded.withElements(before, listOf(a, b, added, d, e))
+
+        assertThat(after.map { it.element }).containsExactly(a, b, added, d, e)
+        assertThat(afterOf(after)).containsExactly(" ", "  ", "", "    ", "     ")
+    }
+
+    @Test
+    fun longListsShareUnchangedChunks() {
+        val elements = identifiers(300)
+        val before: List<JRightPadded<J.Identifier>> = ChunkedList.copyOf(padded(elements))
+
+        val moved = elements.toMutableList()
+        moved.add(290, moved.removeAt(10))
+        val after = JRightPadded.withElements(before, moved)
+
+        assertThat(after).isInstanceOf(ChunkedList::class.java)
+        assertThat(after.map { it.element }).isEqualTo(moved)
+        assertThat(after.map { it.after }).isEqualTo(moved.map { m -> before.first { it.element === m }.after })
+    }
+}
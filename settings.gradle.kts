@@ -3,5 +3,6 @@ rootProject.name = "rewrite-gradle-plugin"
 include(
     "plugin",
     "rewrite-java-repairer",
-    "rewrite-core"
+    "rewrite-core",
+    "rewrite-benchmarks"
 )